@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.File;
+import java.io.IOException;
+
+public class BenchmarkCorpus {
+
+	private BenchmarkCorpus() {
+		// do not instantiate this class
+	}
+
+	public static int getTuCount(String size) {
+		return switch (size) {
+			case "small" -> 1_000;
+			case "medium" -> 50_000;
+			case "large" -> 500_000;
+			default -> throw new IllegalArgumentException(size);
+		};
+	}
+
+	public static File create(String size, int density, boolean doctype) throws IOException {
+		File file = File.createTempFile("bench-" + size + "-" + density, ".tmx");
+		file.deleteOnExit();
+		TMXGenerator generator = new TMXGenerator();
+		generator.setTus(getTuCount(size));
+		generator.setLanguages(3);
+		generator.setInlineDensity(density);
+		generator.setDoctype(doctype);
+		generator.setSeed(42);
+		generator.generate(file);
+		return file;
+	}
+}
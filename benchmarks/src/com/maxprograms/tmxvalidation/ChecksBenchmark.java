@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+import com.maxprograms.languages.Language;
+import com.maxprograms.languages.LanguageUtils;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Dates {
+		@Param({ "20240229T235959Z", "20230229T101010Z", "2024-02-29" })
+		public String date;
+	}
+
+	@State(Scope.Benchmark)
+	public static class Numbers {
+		@Param({ "12", "1.5", "abc" })
+		public String number;
+	}
+
+	@State(Scope.Benchmark)
+	public static class Languages {
+		@Param({ "en", "pt-BR", "x-custom" })
+		public String lang;
+	}
+
+	@Benchmark
+	public boolean checkDate(Dates state) {
+		return TMXValidatingHandler.checkDate(state.date);
+	}
+
+	@Benchmark
+	public boolean isNumber(Numbers state) {
+		return TMXValidatingHandler.isNumber(state.number);
+	}
+
+	@Benchmark
+	public LanguageCache.Result checkLang(Languages state)
+			throws IOException, SAXException, ParserConfigurationException {
+		return LanguageCache.check(state.lang);
+	}
+
+	@Benchmark
+	public Language checkLangUncached(Languages state) throws IOException, SAXException, ParserConfigurationException {
+		return LanguageUtils.getLanguage(state.lang);
+	}
+}
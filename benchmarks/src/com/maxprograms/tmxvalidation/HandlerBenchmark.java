@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HandlerBenchmark {
+
+	private static final int START = 0;
+	private static final int END = 1;
+	private static final int TEXT = 2;
+
+	@Param({ "small", "medium" })
+	public String size;
+
+	@Param({ "0", "2", "8" })
+	public int density;
+
+	private int[] types;
+	private String[] names;
+	private Attributes[] attributes;
+	private char[][] texts;
+	private long length;
+	private int tus;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public double megabytes;
+		public long tus;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, SAXException, ParserConfigurationException {
+		File file = BenchmarkCorpus.create(size, density, false);
+		length = file.length();
+		tus = BenchmarkCorpus.getTuCount(size);
+		List<Integer> typeList = new ArrayList<>();
+		List<String> nameList = new ArrayList<>();
+		List<Attributes> attributeList = new ArrayList<>();
+		List<char[]> textList = new ArrayList<>();
+		SAXParserFactory factory = SAXParserFactory.newInstance();
+		XMLReader reader = factory.newSAXParser().getXMLReader();
+		reader.setFeature("http://xml.org/sax/features/namespaces", true);
+		reader.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
+		reader.setContentHandler(new DefaultHandler() {
+
+			@Override
+			public void startElement(String uri, String localName, String qName, Attributes atts) {
+				typeList.add(START);
+				nameList.add(qName);
+				attributeList.add(new AttributesImpl(atts));
+				textList.add(null);
+			}
+
+			@Override
+			public void endElement(String uri, String localName, String qName) {
+				typeList.add(END);
+				nameList.add(qName);
+				attributeList.add(null);
+				textList.add(null);
+			}
+
+			@Override
+			public void characters(char[] ch, int start, int len) {
+				typeList.add(TEXT);
+				nameList.add(null);
+				attributeList.add(null);
+				char[] text = new char[len];
+				System.arraycopy(ch, start, text, 0, len);
+				textList.add(text);
+			}
+		});
+		reader.parse(file.toURI().toString());
+		types = typeList.stream().mapToInt(Integer::intValue).toArray();
+		names = nameList.toArray(new String[0]);
+		attributes = attributeList.toArray(new Attributes[0]);
+		texts = textList.toArray(new char[0][]);
+	}
+
+	@Benchmark
+	public TMXValidatingHandler replay(Counters counters) throws SAXException {
+		TMXValidatingHandler handler = new TMXValidatingHandler();
+		handler.startDocument();
+		handler.startDTD("tmx", null, "tmx14.dtd");
+		for (int i = 0; i < types.length; i++) {
+			switch (types[i]) {
+				case START -> handler.startElement("", names[i], names[i], attributes[i]);
+				case END -> handler.endElement("", names[i], names[i]);
+				default -> handler.characters(texts[i], 0, texts[i].length);
+			}
+		}
+		handler.endDocument();
+		counters.megabytes += length / 1_000_000.0;
+		counters.tus += tus;
+		return handler;
+	}
+}
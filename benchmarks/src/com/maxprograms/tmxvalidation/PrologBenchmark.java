@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.InputSource;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrologBenchmark {
+
+	@Param({ "true", "false" })
+	public boolean doctype;
+
+	private byte[] head;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		File file = BenchmarkCorpus.create("small", 2, doctype);
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			head = in.readNBytes(2 * TMXProlog.HEAD_SIZE);
+		}
+	}
+
+	@Benchmark
+	public InputSource sniff() throws IOException {
+		// replaces the RELOAD path that copied undeclared files through TMXCopyHandler
+		BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(head));
+		TMXProlog prolog = TMXProlog.read(in);
+		return prolog.getInputSource(in, "bench.tmx");
+	}
+}
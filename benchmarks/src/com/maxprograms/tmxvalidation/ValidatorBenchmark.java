@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.SAXException;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+	@Param({ "small", "medium", "large" })
+	public String size;
+
+	@Param({ "0", "2", "8" })
+	public int density;
+
+	// false exercises the prolog sniffing and DOCTYPE injection that replaced the RELOAD copy
+	@Param({ "true", "false" })
+	public boolean doctype;
+
+	private File file;
+	private long length;
+	private int tus;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public double megabytes;
+		public long tus;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		file = BenchmarkCorpus.create(size, density, doctype);
+		length = file.length();
+		tus = BenchmarkCorpus.getTuCount(size);
+	}
+
+	@Benchmark
+	public void validate(Counters counters) throws IOException, SAXException, ParserConfigurationException {
+		TMXValidator validator = new TMXValidator();
+		validator.validate(file);
+		counters.megabytes += length / 1_000_000.0;
+		counters.tus += tus;
+	}
+}
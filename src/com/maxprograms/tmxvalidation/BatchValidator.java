@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.text.MessageFormat;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+public class BatchValidator {
+
+	private static final Logger LOGGER = System.getLogger(BatchValidator.class.getName());
+
+	public static final String DEFAULT_GLOB = "*.tmx";
+
+	private int threads;
+	private int maxErrors;
+	private boolean recursive;
+	private PathMatcher matcher;
+	private ResultCache cache;
+	private ValidationLevel level = ValidationLevel.FULL;
+	private Set<ValidationCheck> skipped = EnumSet.noneOf(ValidationCheck.class);
+	private boolean duplicates;
+
+	private ValidatorPool validators;
+
+	private LongAdder files = new LongAdder();
+	private LongAdder invalid = new LongAdder();
+	private LongAdder bytes = new LongAdder();
+	private long elapsed;
+
+	public BatchValidator(int threads) {
+		this.threads = Math.max(1, threads);
+		validators = new ValidatorPool(this.threads);
+		matcher = FileSystems.getDefault().getPathMatcher("glob:" + DEFAULT_GLOB);
+	}
+
+	public void setMaxErrors(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
+	public void setRecursive(boolean recursive) {
+		this.recursive = recursive;
+	}
+
+	public void setCache(ResultCache cache) {
+		this.cache = cache;
+	}
+
+	public void setLevel(ValidationLevel level, Set<ValidationCheck> skipped) {
+		this.level = level;
+		this.skipped = EnumSet.noneOf(ValidationCheck.class);
+		this.skipped.addAll(skipped);
+	}
+
+	public void setDuplicates(boolean duplicates) {
+		this.duplicates = duplicates;
+	}
+
+	public void setGlob(String glob) {
+		matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+	}
+
+	public void validateDirectory(File dir) throws IOException {
+		try (Stream<Path> paths = recursive ? Files.walk(dir.toPath()) : Files.list(dir.toPath())) {
+			validate(paths.filter(p -> Files.isRegularFile(p) && matcher.matches(p.getFileName())));
+		}
+	}
+
+	public void validateList(File list) throws IOException {
+		// one path per line, blank lines and lines starting with '#' are ignored
+		try (Stream<String> lines = Files.lines(list.toPath(), StandardCharsets.UTF_8)) {
+			validate(lines.map(String::trim).filter(s -> !s.isEmpty() && !s.startsWith("#")).map(Path::of));
+		}
+	}
+
+	public void validate(List<File> list) {
+		validate(list.stream().map(File::toPath));
+	}
+
+	private void validate(Stream<Path> paths) {
+		// a short queue keeps the directory walk from running far ahead of the workers
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+		long start = System.nanoTime();
+		try {
+			paths.forEach(path -> executor.execute(() -> validateFile(path.toFile())));
+		} finally {
+			executor.shutdown();
+			try {
+				while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+					// keep waiting for the files already submitted
+				}
+			} catch (InterruptedException e) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+			elapsed += System.nanoTime() - start;
+		}
+	}
+
+	private void validateFile(File file) {
+		long begin = System.nanoTime();
+		bytes.add(file.length());
+		files.increment();
+		TMXValidator validator = validators.acquire();
+		validator.setCache(cache);
+		validator.setLevel(level);
+		validator.setSkipped(skipped);
+		validator.setDuplicates(duplicates);
+		try {
+			if (maxErrors > 0) {
+				List<ValidationError> errors = validator.validate(file, maxErrors);
+				if (errors.isEmpty()) {
+					valid(file, begin);
+				} else {
+					invalid.increment();
+					for (ValidationError error : errors) {
+						MessageFormat mf = new MessageFormat(Messages.getString("BatchValidator.1"));
+						LOGGER.log(Level.ERROR, mf.format(new Object[] { file.getPath(), error.toString() }));
+					}
+				}
+				return;
+			}
+			validator.validate(file);
+			valid(file, begin);
+		} catch (IOException | SAXException | ParserConfigurationException | RuntimeException e) {
+			invalid.increment();
+			MessageFormat mf = new MessageFormat(Messages.getString("BatchValidator.1"));
+			LOGGER.log(Level.ERROR, mf.format(new Object[] { file.getPath(), e.getMessage() }));
+		} finally {
+			validators.release(validator);
+		}
+	}
+
+	private static void valid(File file, long begin) {
+		MessageFormat mf = new MessageFormat(Messages.getString("BatchValidator.0"));
+		LOGGER.log(Level.INFO, mf.format(new Object[] { file.getPath(), (System.nanoTime() - begin) / 1_000_000 }));
+	}
+
+	public long getFiles() {
+		return files.sum();
+	}
+
+	public long getInvalid() {
+		return invalid.sum();
+	}
+
+	public long getBytes() {
+		return bytes.sum();
+	}
+
+	public String getSummary() {
+		double seconds = Math.max(elapsed, 1) / 1e9;
+		MessageFormat mf = new MessageFormat(Messages.getString("BatchValidator.2"));
+		return mf.format(new Object[] { getFiles(), getFiles() - getInvalid(), getInvalid(),
+				String.format(Locale.ROOT, "%.2f", seconds), String.format(Locale.ROOT, "%.1f", getFiles() / seconds),
+				String.format(Locale.ROOT, "%.1f", getBytes() / (1024.0 * 1024.0) / seconds) });
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public class Checkpoint {
+
+	// the valid part of a TMX file: everything before the </body> end tag of the last validation
+	private long offset;
+	private String hash;
+	private int line;
+	private int column;
+	private long tus;
+	private long bodyStart;
+	private int bodyLine;
+	private int bodyColumn;
+	private String version;
+	private String srcLang;
+
+	public Checkpoint(long offset, String hash, int line, int column, long tus, long bodyStart, int bodyLine,
+			int bodyColumn, String version, String srcLang) {
+		this.offset = offset;
+		this.hash = hash;
+		this.line = line;
+		this.column = column;
+		this.tus = tus;
+		this.bodyStart = bodyStart;
+		this.bodyLine = bodyLine;
+		this.bodyColumn = bodyColumn;
+		this.version = version;
+		this.srcLang = srcLang;
+	}
+
+	public static Checkpoint load(File file) throws IOException {
+		// a missing, unreadable or outdated checkpoint means validating the whole file
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			JSONObject json = new JSONObject(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+			if (!Constants.VERSION.equals(json.optString("validator"))) {
+				return null;
+			}
+			return new Checkpoint(json.getLong("offset"), json.getString("hash"), json.getInt("line"),
+					json.getInt("column"), json.getLong("tus"), json.getLong("bodyStart"), json.getInt("bodyLine"),
+					json.getInt("bodyColumn"), json.getString("version"), json.getString("srcLang"));
+		} catch (JSONException e) {
+			return null;
+		}
+	}
+
+	public void save(File file) throws IOException {
+		JSONObject json = new JSONObject();
+		json.put("validator", Constants.VERSION);
+		json.put("offset", offset);
+		json.put("hash", hash);
+		json.put("line", line);
+		json.put("column", column);
+		json.put("tus", tus);
+		json.put("bodyStart", bodyStart);
+		json.put("bodyLine", bodyLine);
+		json.put("bodyColumn", bodyColumn);
+		json.put("version", version);
+		json.put("srcLang", srcLang);
+		File temp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+		Files.writeString(temp.toPath(), json.toString(2), StandardCharsets.UTF_8);
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+	public String getHash() {
+		return hash;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	public long getTus() {
+		return tus;
+	}
+
+	public long getBodyStart() {
+		return bodyStart;
+	}
+
+	public int getBodyLine() {
+		return bodyLine;
+	}
+
+	public int getBodyColumn() {
+		return bodyColumn;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public String getSrcLang() {
+		return srcLang;
+	}
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+public enum Compression {
+
+	NONE, GZIP, ZIP;
+
+	public static Compression detect(BufferedInputStream in) throws IOException {
+		in.mark(4);
+		byte[] magic = in.readNBytes(4);
+		in.reset();
+		if (magic.length >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) {
+			return GZIP;
+		}
+		if (magic.length == 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+			// .zip and .tmz
+			return ZIP;
+		}
+		return NONE;
+	}
+
+	public static boolean isTmxEntry(String name) {
+		String lower = name.toLowerCase(Locale.ROOT);
+		return lower.endsWith(".tmx") && !lower.startsWith("__macosx/");
+	}
+}
@@ -18,8 +18,11 @@ public class Constants {
 
 	public static final String SUCCESS = "Success";
 	public static final String ERROR = "Error";
+	public static final String QUEUED = "Queued";
 	public static final String RUNNING = "Running";
 	public static final String COMPLETED = "Completed";
+	public static final String CANCELLED = "Cancelled";
+	public static final String TIMED_OUT = "TimedOut";
 
 	private Constants() {
 		// private for security
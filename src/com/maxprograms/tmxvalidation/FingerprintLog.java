@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FingerprintLog implements AutoCloseable {
+
+	private File directory;
+	private File file;
+	private DataOutputStream out;
+	private long count;
+
+	public FingerprintLog(File directory) {
+		// records go to a temporary file in directory, null for the default one, created with the first record
+		this.directory = directory;
+	}
+
+	public void add(long fingerprint, int line, int column, long tu, String tuid) throws IOException {
+		// a fingerprint seen for the first time in a chunk and where; tuid is null for the whole <tu>
+		if (out == null) {
+			if (file == null) {
+				file = File.createTempFile("fingerprints", ".log", directory);
+			}
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true), 1 << 16));
+		}
+		out.writeLong(fingerprint);
+		out.writeInt(line);
+		out.writeInt(column);
+		out.writeLong(tu);
+		if (tuid == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = tuid.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		count++;
+	}
+
+	public void finish() throws IOException {
+		// releases the file handle, a file for each chunk of a large file stays on disk until replay
+		if (out != null) {
+			out.close();
+			out = null;
+		}
+	}
+
+	public List<ValidationError> replay(FingerprintSet tus, FingerprintSet tuids) throws IOException {
+		// logs are replayed in document order, a fingerprint already in the sets is a duplicate of an earlier one
+		finish();
+		List<ValidationError> duplicates = new ArrayList<>();
+		if (file == null) {
+			return duplicates;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			for (long i = 0; i < count; i++) {
+				long fingerprint = in.readLong();
+				int line = in.readInt();
+				int column = in.readInt();
+				long tu = in.readLong();
+				int length = in.readInt();
+				if (length < 0) {
+					if (!tus.add(fingerprint)) {
+						duplicates.add(new ValidationError(line, column, tu, "TMXValidatingHandler.26"));
+					}
+				} else {
+					String tuid = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+					if (!tuids.add(fingerprint)) {
+						duplicates.add(new ValidationError(line, column, tu, "TMXValidatingHandler.27", tuid));
+					}
+				}
+			}
+		}
+		return duplicates;
+	}
+
+	@Override
+	public void close() throws IOException {
+		finish();
+		if (file != null) {
+			Files.deleteIfExists(file.toPath());
+			file = null;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+public class FingerprintSet implements AutoCloseable {
+
+	public static final long DEFAULT_HEAP_BUDGET = 128L * 1024 * 1024;
+
+	private static final int INITIAL_CAPACITY = 1 << 12;
+
+	// slots in each mapped segment, 1 GiB of longs
+	private static final int SEGMENT_BITS = 27;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+	private long heapBudget;
+	private File directory;
+
+	// 0 marks an empty slot, the fingerprint 0 is kept apart
+	private long[] table;
+	private LongBuffer[] segments;
+	private FileChannel channel;
+	private long capacity;
+	private long size;
+	private boolean hasZero;
+
+	public FingerprintSet() {
+		this(DEFAULT_HEAP_BUDGET, null);
+	}
+
+	public FingerprintSet(long heapBudget, File directory) {
+		// past heapBudget bytes the table moves to a temporary file in directory, null for the default one
+		this.heapBudget = Math.max(INITIAL_CAPACITY * 8L, heapBudget);
+		this.directory = directory;
+		capacity = INITIAL_CAPACITY;
+		table = new long[INITIAL_CAPACITY];
+	}
+
+	public synchronized boolean add(long fingerprint) throws IOException {
+		// true if the fingerprint was not in the set
+		if (fingerprint == 0) {
+			if (hasZero) {
+				return false;
+			}
+			hasZero = true;
+			size++;
+			return true;
+		}
+		long mask = capacity - 1;
+		long slot = mix(fingerprint) & mask;
+		long current = get(slot);
+		while (current != 0) {
+			if (current == fingerprint) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+			current = get(slot);
+		}
+		set(slot, fingerprint);
+		size++;
+		if (size * 4 > capacity * 3) {
+			grow();
+		}
+		return true;
+	}
+
+	public synchronized long size() {
+		return size;
+	}
+
+	public synchronized boolean isMapped() {
+		return channel != null;
+	}
+
+	static long mix(long key) {
+		// MurmurHash3 finalizer, also used to turn running hashes into fingerprints
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+	private long get(long slot) {
+		if (table != null) {
+			return table[(int) slot];
+		}
+		return segments[(int) (slot >>> SEGMENT_BITS)].get((int) (slot & SEGMENT_MASK));
+	}
+
+	private void set(long slot, long value) {
+		if (table != null) {
+			table[(int) slot] = value;
+		} else {
+			segments[(int) (slot >>> SEGMENT_BITS)].put((int) (slot & SEGMENT_MASK), value);
+		}
+	}
+
+	private void grow() throws IOException {
+		long[] oldTable = table;
+		LongBuffer[] oldSegments = segments;
+		FileChannel oldChannel = channel;
+		long oldCapacity = capacity;
+		capacity *= 2;
+		if (capacity * 8 <= heapBudget && capacity <= Integer.MAX_VALUE - 8) {
+			table = new long[(int) capacity];
+		} else {
+			map();
+		}
+		long mask = capacity - 1;
+		for (long i = 0; i < oldCapacity; i++) {
+			long value = oldTable != null ? oldTable[(int) i]
+					: oldSegments[(int) (i >>> SEGMENT_BITS)].get((int) (i & SEGMENT_MASK));
+			if (value != 0) {
+				long slot = mix(value) & mask;
+				while (get(slot) != 0) {
+					slot = (slot + 1) & mask;
+				}
+				set(slot, value);
+			}
+		}
+		if (oldChannel != null) {
+			oldChannel.close();
+		}
+	}
+
+	private void map() throws IOException {
+		// a new file reads as zeros, so every slot starts empty and pages are only written when used
+		File file = File.createTempFile("fingerprints", ".bin", directory);
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.DELETE_ON_CLOSE);
+		table = null;
+		int count = (int) ((capacity + SEGMENT_MASK) >>> SEGMENT_BITS);
+		segments = new LongBuffer[count];
+		for (int i = 0; i < count; i++) {
+			long slots = Math.min(1L << SEGMENT_BITS, capacity - ((long) i << SEGMENT_BITS));
+			segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, ((long) i << SEGMENT_BITS) * 8, slots * 8)
+					.asLongBuffer();
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		// mapped pages are released when the buffers are collected, the file is deleted now
+		table = null;
+		segments = null;
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+
+public class JobRegistry implements AutoCloseable {
+
+	public static final long DEFAULT_TTL = TimeUnit.MINUTES.toMillis(30);
+	public static final int DEFAULT_MAX_FINISHED = 1000;
+
+	private long ttl;
+	private int maxFinished;
+	private ConcurrentHashMap<String, ValidationJob> jobs = new ConcurrentHashMap<>();
+	// finished jobs still in the registry, in the order they finished; the oldest ones are evicted first
+	private LinkedHashSet<ValidationJob> finished = new LinkedHashSet<>();
+	private ScheduledExecutorService sweeper;
+
+	public JobRegistry() {
+		this(DEFAULT_TTL, DEFAULT_MAX_FINISHED);
+	}
+
+	public JobRegistry(long ttl, int maxFinished) {
+		this.ttl = ttl;
+		this.maxFinished = Math.max(1, maxFinished);
+		sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "JobRegistry sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long period = Math.max(1000L, Math.min(ttl, TimeUnit.MINUTES.toMillis(1)));
+		sweeper.scheduleAtFixedRate(this::sweep, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	public ValidationJob create() {
+		ValidationJob job = new ValidationJob(UUID.randomUUID().toString());
+		jobs.put(job.getId(), job);
+		return job;
+	}
+
+	public ValidationJob get(String id) {
+		return jobs.get(id);
+	}
+
+	public synchronized void remove(ValidationJob job) {
+		// delivered results leave the registry at once, not when they expire
+		if (jobs.remove(job.getId(), job)) {
+			finished.remove(job);
+		}
+	}
+
+	public void finish(ValidationJob job, JSONObject result, String status) {
+		job.finish(result, status);
+		synchronized (this) {
+			if (jobs.get(job.getId()) != job) {
+				return;
+			}
+			finished.add(job);
+			evict();
+		}
+	}
+
+	synchronized int getFinishedCount() {
+		return finished.size();
+	}
+
+	public int size() {
+		return jobs.size();
+	}
+
+	public synchronized void sweep() {
+		long limit = System.currentTimeMillis() - ttl;
+		Iterator<ValidationJob> it = finished.iterator();
+		while (it.hasNext()) {
+			ValidationJob oldest = it.next();
+			if (oldest.getFinished() >= limit) {
+				break;
+			}
+			it.remove();
+			jobs.remove(oldest.getId(), oldest);
+		}
+		evict();
+	}
+
+	private void evict() {
+		Iterator<ValidationJob> it = finished.iterator();
+		while (finished.size() > maxFinished && it.hasNext()) {
+			ValidationJob oldest = it.next();
+			it.remove();
+			jobs.remove(oldest.getId(), oldest);
+		}
+	}
+
+	@Override
+	public void close() {
+		sweeper.shutdownNow();
+	}
+}
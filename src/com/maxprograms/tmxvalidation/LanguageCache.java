@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.SAXException;
+
+import com.maxprograms.languages.Language;
+import com.maxprograms.languages.LanguageUtils;
+
+public class LanguageCache {
+
+	public enum Result {
+		VALID, INVALID, CUSTOM
+	}
+
+	public static final int MAX_ENTRIES = 4096;
+
+	private static Map<String, Result> cache = new ConcurrentHashMap<>();
+	private static LongAdder hits = new LongAdder();
+	private static LongAdder misses = new LongAdder();
+
+	private LanguageCache() {
+		// do not instantiate this class
+	}
+
+	public static Result check(String lang) throws IOException, SAXException, ParserConfigurationException {
+		Result result = cache.get(lang);
+		if (result != null) {
+			hits.increment();
+			return result;
+		}
+		misses.increment();
+		result = lookup(lang);
+		// once full, keep the tags already seen instead of letting broken files evict them
+		if (cache.size() < MAX_ENTRIES) {
+			cache.putIfAbsent(lang, result);
+		}
+		return result;
+	}
+
+	private static Result lookup(String lang) throws IOException, SAXException, ParserConfigurationException {
+		if (lang.startsWith("x-") || lang.startsWith("X-")) {
+			// custom language code
+			return Result.CUSTOM;
+		}
+		Language language = LanguageUtils.getLanguage(lang);
+		if (language == null || !language.getCode().equals(lang)) {
+			return Result.INVALID;
+		}
+		return Result.VALID;
+	}
+
+	public static long getHits() {
+		return hits.sum();
+	}
+
+	public static long getMisses() {
+		return misses.sum();
+	}
+
+	public static int size() {
+		return cache.size();
+	}
+
+	public static void clear() {
+		cache.clear();
+		hits.reset();
+		misses.reset();
+	}
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.util.Arrays;
+
+public class LongIntMap {
+
+	private static final int INITIAL_CAPACITY = 16;
+	private static final int MAX_RETAINED_CAPACITY = 1024;
+
+	private long[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int size;
+
+	public LongIntMap() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+		size = 0;
+	}
+
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	private int slot(long key) {
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while (used[i] && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	public boolean containsKey(long key) {
+		return used[slot(key)];
+	}
+
+	public int get(long key, int missing) {
+		int i = slot(key);
+		return used[i] ? values[i] : missing;
+	}
+
+	public void put(long key, int value) {
+		int i = slot(key);
+		if (!used[i]) {
+			if ((size + 1) * 2 > keys.length) {
+				rehash(keys.length * 2);
+				i = slot(key);
+			}
+			used[i] = true;
+			keys[i] = key;
+			size++;
+		}
+		values[i] = value;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int j = slot(oldKeys[i]);
+				used[j] = true;
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+				size++;
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		if (size == 0) {
+			return;
+		}
+		if (keys.length > MAX_RETAINED_CAPACITY) {
+			// do not keep the memory used by an unusually large segment
+			allocate(INITIAL_CAPACITY);
+			return;
+		}
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	public boolean allValuesEqual(int value) {
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i] && values[i] != value) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public boolean sameEntries(LongIntMap other) {
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				int j = other.slot(keys[i]);
+				if (!other.used[j] || other.values[j] != values[i]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+}
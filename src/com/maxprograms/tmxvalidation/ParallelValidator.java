@@ -0,0 +1,836 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+public class ParallelValidator implements AutoCloseable {
+
+	public static final long MIN_FILE_SIZE = 16L * 1024 * 1024;
+	public static final long MIN_CHUNK_SIZE = 4L * 1024 * 1024;
+	public static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final int LOOKAHEAD = 16;
+
+	private static final int TEXT = 0;
+	private static final int COMMENT = 1;
+	private static final int CDATA = 2;
+	private static final int PI = 3;
+	private static final int BODY_TAG = 4;
+
+	// bytes read at a time while looking for the start and end of a sampled <tu>
+	private static final int SAMPLE_BUFFER = 1 << 16;
+
+	private ForkJoinPool pool;
+	private int threads;
+	private TMXResolver resolver;
+	private File checkpointFile;
+	private ValidationLevel level = ValidationLevel.FULL;
+	private Set<ValidationCheck> skipped = EnumSet.noneOf(ValidationCheck.class);
+	private boolean duplicates;
+	private long resumedFrom = -1;
+
+	public ParallelValidator(int threads) {
+		this.threads = Math.max(1, threads);
+		pool = new ForkJoinPool(this.threads);
+		resolver = new TMXResolver();
+	}
+
+	public void setLevel(ValidationLevel level, Set<ValidationCheck> skipped) {
+		this.level = level;
+		this.skipped = EnumSet.noneOf(ValidationCheck.class);
+		this.skipped.addAll(skipped);
+	}
+
+	public void setDuplicates(boolean duplicates) {
+		// all chunks share the fingerprints, which copy of a duplicate is reported depends on the order they finish
+		this.duplicates = duplicates;
+	}
+
+	public void setCheckpoint(File checkpointFile) {
+		// append-only files: a valid file leaves a checkpoint, the next run only reads what was added before </body>
+		this.checkpointFile = checkpointFile;
+	}
+
+	public long getResumedFrom() {
+		// bytes skipped by the last validation thanks to the checkpoint, -1 if it read the whole file
+		return resumedFrom;
+	}
+
+	public void validate(File file) throws IOException, SAXException, ParserConfigurationException {
+		List<ValidationError> errors = validate(file, 1);
+		if (!errors.isEmpty()) {
+			throw new SAXException(errors.get(0).toString());
+		}
+	}
+
+	public List<ValidationError> validate(File file, int maxErrors) throws IOException, ParserConfigurationException {
+		if (maxErrors < 1) {
+			throw new IllegalArgumentException(Messages.getString("TMXValidator.3"));
+		}
+		resumedFrom = -1;
+		TMXProlog prolog;
+		Compression compression;
+		try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			compression = Compression.detect(in);
+			prolog = TMXProlog.read(in);
+		}
+		// checkpoints only record what a full validation accepted, duplicates need every <tu> of the file
+		File checkpoints = level == ValidationLevel.FULL && skipped.isEmpty() && !duplicates ? checkpointFile : null;
+		boolean small = checkpoints == null && (file.length() < MIN_FILE_SIZE || threads == 1);
+		if (small || compression != Compression.NONE || !prolog.isAsciiCompatible() || prolog.hasInternalSubset()
+				|| !countsColumns(prolog.getCharset())) {
+			// splitting would not pay off, <tu> boundaries cannot be found by byte or columns cannot be counted
+			return sequential(file, maxErrors);
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				FingerprintSet tus = duplicates ? new FingerprintSet() : null;
+				FingerprintSet tuids = duplicates ? new FingerprintSet() : null) {
+			long size = channel.size();
+			long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / (threads * 4L)));
+			MessageDigest digest = checkpoints != null ? newDigest() : null;
+			Checkpoint checkpoint = checkpoints != null ? Checkpoint.load(checkpoints) : null;
+			if (checkpoint != null && !matches(channel, size, checkpoint, digest)) {
+				checkpoint = null;
+				digest.reset();
+			}
+			Layout layout = scan(channel, size, chunkSize, checkpoint, isUtf8(prolog.getCharset()), false);
+			if (layout == null) {
+				return sequential(file, maxErrors);
+			}
+			if (checkpoint != null) {
+				resumedFrom = checkpoint.getOffset();
+			}
+			String systemId = file.toURI().toString();
+			TMXValidatingHandler skeleton = new TMXValidatingHandler();
+			List<ValidationError> errors = validateSkeleton(channel, size, layout, skeleton, systemId, maxErrors);
+			if (skeleton.isStopped() || skeleton.getVersion() == null) {
+				return errors;
+			}
+			List<Callable<List<ValidationError>>> tasks = new ArrayList<>();
+			for (Chunk chunk : layout.chunks) {
+				if (duplicates) {
+					chunk.prints = new FingerprintLog(null);
+				}
+				tasks.add(() -> validateChunk(channel, chunk, prolog.getCharset(), skeleton.getVersion(),
+						skeleton.getSrcLang(), systemId, maxErrors));
+			}
+			try {
+				for (Future<List<ValidationError>> future : pool.invokeAll(tasks)) {
+					errors.addAll(future.get());
+				}
+				if (duplicates) {
+					// a chunk only sees its own <tu> elements, which copy is the later one is decided in document order
+					String prefix = chunkPrefix(prolog.getCharset(), skeleton.getVersion());
+					for (Chunk chunk : layout.chunks) {
+						errors.addAll(relocate(chunk.prints.replay(tus, tuids), chunk, prefix));
+					}
+				}
+			} finally {
+				for (Chunk chunk : layout.chunks) {
+					if (chunk.prints != null) {
+						chunk.prints.close();
+					}
+				}
+			}
+			// chunks finish in any order, report findings as a sequential validation would
+			errors.sort(Comparator.comparingInt(ValidationError::getLine).thenComparingInt(ValidationError::getColumn));
+			if (errors.isEmpty() && digest != null) {
+				update(channel, checkpoint != null ? checkpoint.getOffset() : 0, layout.bodyEnd, digest);
+				new Checkpoint(layout.bodyEnd, HexFormat.of().formatHex(digest.digest()), layout.tailLine,
+						layout.tailColumn, layout.tus, layout.bodyStart, layout.bodyLine, layout.bodyColumn,
+						skeleton.getVersion(), skeleton.getSrcLang()).save(checkpoints);
+			}
+			return errors.size() > maxErrors ? new ArrayList<>(errors.subList(0, maxErrors)) : errors;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException ioe) {
+				throw ioe;
+			}
+			if (cause instanceof ParserConfigurationException pce) {
+				throw pce;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	public SampleResult sample(File file, int count, Random random) throws IOException, ParserConfigurationException {
+		// validates everything outside <body> and about count <tu> elements, evenly spaced or at random offsets
+		if (count < 1) {
+			throw new IllegalArgumentException(Messages.getString("ParallelValidator.1"));
+		}
+		TMXProlog prolog;
+		Compression compression;
+		try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			compression = Compression.detect(in);
+			prolog = TMXProlog.read(in);
+		}
+		if (compression != Compression.NONE || !prolog.isAsciiCompatible() || prolog.hasInternalSubset()) {
+			throw new IOException(Messages.getString("ParallelValidator.2"));
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			Layout layout = scan(channel, size, Long.MAX_VALUE, null, isUtf8(prolog.getCharset()), true);
+			if (layout == null) {
+				throw new IOException(Messages.getString("ParallelValidator.3"));
+			}
+			layout.bodyEnd = findBodyEnd(channel, layout.bodyStart, size);
+			if (layout.bodyEnd == -1) {
+				throw new IOException(Messages.getString("ParallelValidator.3"));
+			}
+			// lines inside <body> are not counted, errors after it keep their position in the skeleton
+			layout.tailLine = layout.bodyLine;
+			layout.tailColumn = layout.bodyColumn;
+			String systemId = file.toURI().toString();
+			TMXValidatingHandler skeleton = new TMXValidatingHandler();
+			List<ValidationError> headerErrors = validateSkeleton(channel, size, layout, skeleton, systemId,
+					Integer.MAX_VALUE);
+			List<SampleResult.Sample> samples = new ArrayList<>();
+			long span = layout.bodyEnd - layout.bodyStart;
+			if (skeleton.getVersion() == null || span == 0) {
+				return new SampleResult(headerErrors, samples, span, count);
+			}
+			long[] offsets = new long[count];
+			for (int i = 0; i < count; i++) {
+				double position = random != null ? random.nextDouble() : (i + 0.5) / count;
+				offsets[i] = layout.bodyStart + (long) (position * span);
+			}
+			Arrays.sort(offsets);
+			List<Chunk> chunks = new ArrayList<>();
+			int[] hits = new int[count];
+			for (long offset : offsets) {
+				Chunk chunk = locate(channel, offset, layout.bodyEnd);
+				if (chunk == null) {
+					continue;
+				}
+				// offsets that resync on the same <tu> validate it once, the estimates count each of them
+				int last = chunks.size() - 1;
+				if (last >= 0 && chunks.get(last).start == chunk.start) {
+					hits[last]++;
+				} else {
+					hits[last + 1] = 1;
+					chunks.add(chunk);
+				}
+			}
+			List<Callable<List<ValidationError>>> tasks = new ArrayList<>();
+			for (Chunk chunk : chunks) {
+				tasks.add(() -> validateChunk(channel, chunk, prolog.getCharset(), skeleton.getVersion(),
+						skeleton.getSrcLang(), systemId, Integer.MAX_VALUE));
+			}
+			List<Future<List<ValidationError>>> results = pool.invokeAll(tasks);
+			for (int i = 0; i < chunks.size(); i++) {
+				Chunk chunk = chunks.get(i);
+				// a sample that ends where this one starts is the <tu> before it, no need to look for it
+				long previous = i > 0 && chunks.get(i - 1).end == chunk.start ? chunks.get(i - 1).start
+						: previousTu(channel, chunk.start, layout.bodyStart);
+				samples.add(new SampleResult.Sample(chunk.start, chunk.end - chunk.start, chunk.start - previous,
+						hits[i], results.get(i).get()));
+			}
+			return new SampleResult(headerErrors, samples, span, count);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException ioe) {
+				throw ioe;
+			}
+			if (cause instanceof ParserConfigurationException pce) {
+				throw pce;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	private static long findBodyEnd(FileChannel channel, long bodyStart, long size) throws IOException {
+		// </body> is near the end of the file, read backwards from there
+		byte[] buffer = new byte[SAMPLE_BUFFER];
+		long end = size;
+		while (end > bodyStart) {
+			long start = Math.max(bodyStart, end - SAMPLE_BUFFER);
+			int length = (int) (end - start);
+			read(channel, buffer, start, length);
+			for (int i = length - 1; i >= 0; i--) {
+				if (buffer[i] == '<' && matchesTag(buffer, i, length, "</body")) {
+					return start + i;
+				}
+			}
+			// keep a few bytes so that a tag cut by the block boundary is seen whole
+			end = start == bodyStart ? start : start + LOOKAHEAD;
+		}
+		return -1;
+	}
+
+	private static long previousTu(FileChannel channel, long start, long bodyStart) throws IOException {
+		// the start tag of the <tu> before the one at start, or the start of <body> for the first one.
+		// Reading backwards, the end of a comment or CDATA section skips it, as locate() does reading forward
+		byte[] buffer = new byte[SAMPLE_BUFFER];
+		int state = TEXT;
+		long limit = start;
+		while (limit > bodyStart) {
+			// bytes from limit on were looked at already, a few of them are read again to match tags cut by it
+			long base = Math.max(bodyStart, limit - (SAMPLE_BUFFER - LOOKAHEAD));
+			int length = (int) (Math.min(start, limit + LOOKAHEAD) - base);
+			read(channel, buffer, base, length);
+			for (int i = (int) (limit - base) - 1; i >= 0; i--) {
+				byte b = buffer[i];
+				switch (state) {
+					case COMMENT:
+						if (b == '<' && matches(buffer, i, length, "<!--")) {
+							state = TEXT;
+						}
+						break;
+					case CDATA:
+						if (b == '<' && matches(buffer, i, length, "<![CDATA[")) {
+							state = TEXT;
+						}
+						break;
+					default:
+						if (b == '-' && matches(buffer, i, length, "-->")) {
+							state = COMMENT;
+						} else if (b == ']' && matches(buffer, i, length, "]]>")) {
+							state = CDATA;
+						} else if (b == '<' && matchesTag(buffer, i, length, "<tu")) {
+							return base + i;
+						}
+				}
+			}
+			limit = base;
+		}
+		return bodyStart;
+	}
+
+	private static Chunk locate(FileChannel channel, long offset, long bodyEnd) throws IOException {
+		// resync on the next <tu> start tag, the sample runs to the start tag of the <tu> that follows it.
+		// The offset can fall inside a comment or CDATA section: their end, seen outside of one that was
+		// opened after the offset, discards the <tu> found so far
+		byte[] buffer = new byte[SAMPLE_BUFFER];
+		long base = offset;
+		int limit = 0;
+		int pos = 0;
+		int state = TEXT;
+		long start = -1;
+		while (true) {
+			if (limit - pos < LOOKAHEAD && base + limit < bodyEnd) {
+				System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+				base += pos;
+				limit -= pos;
+				pos = 0;
+				int length = (int) Math.min(buffer.length - limit, bodyEnd - base - limit);
+				read(channel, buffer, base + limit, length, limit);
+				limit += length;
+			}
+			if (pos >= limit) {
+				return start == -1 ? null : new Chunk(start, bodyEnd);
+			}
+			byte b = buffer[pos];
+			switch (state) {
+				case COMMENT:
+					if (b == '-' && matches(buffer, pos, limit, "-->")) {
+						state = TEXT;
+						pos += 3;
+						continue;
+					}
+					break;
+				case CDATA:
+					if (b == ']' && matches(buffer, pos, limit, "]]>")) {
+						state = TEXT;
+						pos += 3;
+						continue;
+					}
+					break;
+				case PI:
+					if (b == '?' && matches(buffer, pos, limit, "?>")) {
+						state = TEXT;
+						pos += 2;
+						continue;
+					}
+					break;
+				default:
+					if ((b == '-' && matches(buffer, pos, limit, "-->"))
+							|| (b == ']' && matches(buffer, pos, limit, "]]>"))) {
+						// the offset was inside a comment or CDATA section
+						start = -1;
+						pos += 3;
+						continue;
+					}
+					if (b != '<') {
+						break;
+					}
+					if (matches(buffer, pos, limit, "<!--")) {
+						state = COMMENT;
+						pos += 4;
+						continue;
+					}
+					if (matches(buffer, pos, limit, "<![CDATA[")) {
+						state = CDATA;
+						pos += 9;
+						continue;
+					}
+					if (matches(buffer, pos, limit, "<?")) {
+						state = PI;
+						pos += 2;
+						continue;
+					}
+					if (matchesTag(buffer, pos, limit, "<tu")) {
+						if (start != -1) {
+							return new Chunk(start, base + pos);
+						}
+						start = base + pos;
+					}
+			}
+			pos++;
+		}
+	}
+
+	private static void read(FileChannel channel, byte[] buffer, long position, int length) throws IOException {
+		read(channel, buffer, position, length, 0);
+	}
+
+	private static void read(FileChannel channel, byte[] buffer, long position, int length, int offset)
+			throws IOException {
+		ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+		while (target.hasRemaining()) {
+			if (channel.read(target, position + target.position() - offset) <= 0) {
+				throw new IOException(Messages.getString("ParallelValidator.0"));
+			}
+		}
+	}
+
+	private List<ValidationError> sequential(File file, int maxErrors) throws IOException, ParserConfigurationException {
+		TMXValidator validator = new TMXValidator();
+		validator.setLevel(level);
+		validator.setSkipped(skipped);
+		validator.setDuplicates(duplicates);
+		return validator.validate(file, maxErrors);
+	}
+
+	private List<ValidationError> validateSkeleton(FileChannel channel, long size, Layout layout,
+			TMXValidatingHandler handler, String systemId, int maxErrors)
+			throws IOException, ParserConfigurationException {
+		// everything but the content of <body>
+		handler.setMaxErrors(maxErrors);
+		handler.setLevel(level, skipped);
+		try {
+			XMLReader reader = TMXValidator.createReader(handler, resolver);
+			TMXValidator.setLevel(reader, level);
+			reader.setErrorHandler(new TMXErrorHandler(handler));
+			try (BufferedInputStream in = skeletonStream(channel, size, layout)) {
+				TMXProlog prolog = TMXProlog.read(in);
+				reader.parse(prolog.getInputSource(in, systemId));
+			}
+		} catch (SAXException e) {
+			handler.addError(e);
+		}
+		List<ValidationError> result = new ArrayList<>();
+		for (ValidationError error : handler.getErrors()) {
+			if (error.getLine() > layout.bodyLine
+					|| (error.getLine() == layout.bodyLine && error.getColumn() > layout.bodyColumn)) {
+				// the tail of the file follows the start tag of <body> in the skeleton
+				if (error.getLine() == layout.bodyLine) {
+					int column = error.getColumn() - layout.bodyColumn + layout.tailColumn;
+					result.add(error.relocate(layout.tailLine, column));
+				} else {
+					result.add(error.relocate(error.getLine() + layout.tailLine - layout.bodyLine, error.getColumn()));
+				}
+			} else {
+				result.add(error);
+			}
+		}
+		return result;
+	}
+
+	private static BufferedInputStream skeletonStream(FileChannel channel, long size, Layout layout) {
+		InputStream head = new RangeInputStream(channel, 0, layout.bodyStart);
+		InputStream tail = new RangeInputStream(channel, layout.bodyEnd, size);
+		return new BufferedInputStream(new SequenceInputStream(head, tail), 1 << 16);
+	}
+
+	private List<ValidationError> validateChunk(FileChannel channel, Chunk chunk, Charset charset, String version,
+			String srcLang, String systemId, int maxErrors) throws IOException, ParserConfigurationException {
+		TMXValidatingHandler handler = new TMXValidatingHandler();
+		handler.setFragment(version, srcLang, chunk.firstTu);
+		handler.setMaxErrors(maxErrors);
+		handler.setLevel(level, skipped);
+		String prefix = chunkPrefix(charset, version);
+		List<InputStream> parts = List.of(new ByteArrayInputStream(prefix.getBytes(charset)),
+				new BufferedInputStream(new RangeInputStream(channel, chunk.start, chunk.end), 1 << 16),
+				new ByteArrayInputStream("</body>".getBytes(charset)));
+		try (InputStream in = new SequenceInputStream(Collections.enumeration(parts));
+				FingerprintSet tus = chunk.prints != null ? new FingerprintSet() : null;
+				FingerprintSet tuids = chunk.prints != null ? new FingerprintSet() : null) {
+			handler.setDuplicates(tus, tuids, chunk.prints);
+			XMLReader reader = TMXValidator.createReader(handler, resolver);
+			TMXValidator.setLevel(reader, level);
+			reader.setErrorHandler(new TMXErrorHandler(handler));
+			InputSource source = new InputSource(in);
+			source.setSystemId(systemId);
+			reader.parse(source);
+		} catch (SAXException e) {
+			handler.addError(e);
+		} finally {
+			if (chunk.prints != null) {
+				chunk.prints.finish();
+			}
+		}
+		return relocate(handler.getErrors(), chunk, prefix);
+	}
+
+	private static String chunkPrefix(Charset charset, String version) {
+		return "<?xml version=\"1.0\" encoding=\"" + charset.name() + "\"?><!DOCTYPE body SYSTEM \""
+				+ TMXProlog.getSystemId(version) + "\"><body>";
+	}
+
+	private static List<ValidationError> relocate(List<ValidationError> errors, Chunk chunk, String prefix) {
+		// positions in the chunk, counted from the start of the prefix, to positions in the file
+		List<ValidationError> result = new ArrayList<>();
+		for (ValidationError error : errors) {
+			if (error.getLine() <= 1) {
+				int column = error.getColumn() - prefix.length() - 1 + chunk.column;
+				result.add(error.relocate(chunk.line, Math.max(1, column)));
+			} else {
+				result.add(error.relocate(error.getLine() + chunk.line - 1, error.getColumn()));
+			}
+		}
+		return result;
+	}
+
+	private static MessageDigest newDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform implements SHA-256
+			throw new IOException(e);
+		}
+	}
+
+	private static void update(FileChannel channel, long start, long end, MessageDigest digest) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		long position = start;
+		while (position < end) {
+			buffer.clear();
+			buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				throw new IOException(Messages.getString("ParallelValidator.0"));
+			}
+			buffer.flip();
+			digest.update(buffer);
+			position += read;
+		}
+	}
+
+	private static boolean matches(FileChannel channel, long size, Checkpoint checkpoint, MessageDigest digest)
+			throws IOException {
+		// the digest keeps the state of the prefix, the new content is added to it when the checkpoint moves
+		if (checkpoint.getOffset() > size) {
+			return false;
+		}
+		update(channel, 0, checkpoint.getOffset(), digest);
+		try {
+			MessageDigest copy = (MessageDigest) digest.clone();
+			return HexFormat.of().formatHex(copy.digest()).equals(checkpoint.getHash());
+		} catch (CloneNotSupportedException e) {
+			return false;
+		}
+	}
+
+	private static boolean isUtf8(Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset);
+	}
+
+	private static boolean countsColumns(Charset charset) {
+		// the parser counts columns in characters, scan() knows how many bytes make one in these encodings
+		return isUtf8(charset) || (charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1);
+	}
+
+	private static Layout scan(FileChannel channel, long size, long chunkSize, Checkpoint checkpoint, boolean utf8,
+			boolean headerOnly) throws IOException {
+		// find <body>, </body> and the <tu> elements where chunks can start, skipping comments and CDATA sections
+		byte[] buffer = new byte[BUFFER_SIZE];
+		long base = 0;
+		int limit = 0;
+		int pos = 0;
+		boolean eof = false;
+		int line = 1;
+		// columns are lineColumn plus the bytes read since lineStart, less the ones that do not start a character
+		long lineStart = 0;
+		int lineColumn = 1;
+		long extra = 0;
+		int state = TEXT;
+		long tus = 0;
+		Layout layout = new Layout();
+		Chunk current = null;
+		if (checkpoint != null) {
+			// continue where the last valid </body> was, the content before it is known to be valid
+			base = checkpoint.getOffset();
+			line = checkpoint.getLine();
+			lineStart = base;
+			lineColumn = checkpoint.getColumn();
+			tus = checkpoint.getTus();
+			layout.bodyStart = checkpoint.getBodyStart();
+			layout.bodyLine = checkpoint.getBodyLine();
+			layout.bodyColumn = checkpoint.getBodyColumn();
+			current = new Chunk(base, tus, line, checkpoint.getColumn());
+			layout.chunks.add(current);
+		}
+		while (true) {
+			if (limit - pos < LOOKAHEAD && !eof) {
+				System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+				base += pos;
+				limit -= pos;
+				pos = 0;
+				while (limit < buffer.length) {
+					int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit), base + limit);
+					if (read == -1) {
+						eof = true;
+						break;
+					}
+					limit += read;
+				}
+			}
+			if (pos >= limit) {
+				// </body> not found, let the sequential parser report it
+				return null;
+			}
+			byte b = buffer[pos];
+			if (b == '\n') {
+				line++;
+				lineStart = base + pos + 1;
+				lineColumn = 1;
+				extra = 0;
+				pos++;
+				continue;
+			}
+			if (b < 0 && utf8) {
+				// continuation bytes add nothing, 4-byte sequences are surrogate pairs of two characters
+				if ((b & 0xC0) == 0x80) {
+					extra++;
+				} else if ((b & 0xF8) == 0xF0) {
+					extra--;
+				}
+			}
+			switch (state) {
+				case COMMENT:
+					if (b == '-' && matches(buffer, pos, limit, "-->")) {
+						state = TEXT;
+						pos += 3;
+						continue;
+					}
+					break;
+				case CDATA:
+					if (b == ']' && matches(buffer, pos, limit, "]]>")) {
+						state = TEXT;
+						pos += 3;
+						continue;
+					}
+					break;
+				case PI:
+					if (b == '?' && matches(buffer, pos, limit, "?>")) {
+						state = TEXT;
+						pos += 2;
+						continue;
+					}
+					break;
+				case BODY_TAG:
+					if (b == '>') {
+						if (pos > 0 && buffer[pos - 1] == '/') {
+							// empty <body/>, nothing to split
+							return null;
+						}
+						layout.bodyStart = base + pos + 1;
+						layout.bodyLine = line;
+						layout.bodyColumn = (int) (lineColumn + layout.bodyStart - lineStart - extra);
+						if (headerOnly) {
+							return layout;
+						}
+						current = new Chunk(layout.bodyStart, 0, line, layout.bodyColumn);
+						layout.chunks.add(current);
+						state = TEXT;
+					}
+					break;
+				default:
+					if (b != '<') {
+						break;
+					}
+					if (matches(buffer, pos, limit, "<!--")) {
+						state = COMMENT;
+						pos += 4;
+						continue;
+					}
+					if (matches(buffer, pos, limit, "<![CDATA[")) {
+						state = CDATA;
+						pos += 9;
+						continue;
+					}
+					if (matches(buffer, pos, limit, "<?")) {
+						state = PI;
+						pos += 2;
+						continue;
+					}
+					if (current == null) {
+						if (matchesTag(buffer, pos, limit, "<body")) {
+							state = BODY_TAG;
+						}
+					} else if (matchesTag(buffer, pos, limit, "<tu")) {
+						long offset = base + pos;
+						if (offset - current.start >= chunkSize) {
+							current.end = offset;
+							current = new Chunk(offset, tus, line, (int) (lineColumn + offset - lineStart - extra));
+							layout.chunks.add(current);
+						}
+						tus++;
+					} else if (matchesTag(buffer, pos, limit, "</body")) {
+						current.end = base + pos;
+						layout.bodyEnd = current.end;
+						layout.tailLine = line;
+						layout.tailColumn = (int) (lineColumn + current.end - lineStart - extra);
+						layout.tus = tus;
+						return layout;
+					}
+			}
+			pos++;
+		}
+	}
+
+	private static boolean matches(byte[] buffer, int pos, int limit, String text) {
+		if (pos + text.length() > limit) {
+			return false;
+		}
+		for (int i = 0; i < text.length(); i++) {
+			if (buffer[pos + i] != text.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matchesTag(byte[] buffer, int pos, int limit, String text) {
+		if (!matches(buffer, pos, limit, text) || pos + text.length() >= limit) {
+			return false;
+		}
+		byte next = buffer[pos + text.length()];
+		return next == '>' || next == '/' || next == ' ' || next == '\t' || next == '\r' || next == '\n';
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	private static class Layout {
+		long bodyStart;
+		int bodyLine;
+		int bodyColumn;
+		long bodyEnd;
+		int tailLine;
+		int tailColumn;
+		long tus;
+		List<Chunk> chunks = new ArrayList<>();
+	}
+
+	private static class Chunk {
+		long start;
+		long end;
+		long firstTu;
+		int line;
+		int column;
+		// fingerprints new to the chunk, null when duplicates are not checked
+		FingerprintLog prints;
+
+		Chunk(long start, long firstTu, int line, int column) {
+			this.start = start;
+			this.firstTu = firstTu;
+			this.line = line;
+			this.column = column;
+		}
+
+		Chunk(long start, long end) {
+			// a sampled <tu>, positions of its errors are relative to the start tag
+			this(start, 0, 1, 1);
+			this.end = end;
+		}
+	}
+
+	private static class RangeInputStream extends InputStream {
+
+		private FileChannel channel;
+		private long position;
+		private long end;
+
+		RangeInputStream(FileChannel channel, long start, long end) {
+			// positional reads let every chunk share the same channel
+			this.channel = channel;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			if (len == 0) {
+				return 0;
+			}
+			int count = (int) Math.min(len, end - position);
+			int read = channel.read(ByteBuffer.wrap(b, off, count), position);
+			if (read <= 0) {
+				return -1;
+			}
+			position += read;
+			return read;
+		}
+	}
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public class ResultCache implements AutoCloseable {
+
+	private static final Logger LOGGER = System.getLogger(ResultCache.class.getName());
+
+	public static final int DEFAULT_MAX_ENTRIES = 10_000;
+	public static final String FILE_NAME = "results.json";
+
+	// number of new results kept in memory before the store is written again
+	private static final int SAVE_INTERVAL = 100;
+
+	public static class CachedResult {
+
+		private boolean valid;
+		private String reason;
+
+		CachedResult(boolean valid, String reason) {
+			this.valid = valid;
+			this.reason = reason;
+		}
+
+		public boolean isValid() {
+			return valid;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+	}
+
+	private static class Entry {
+
+		String path;
+		long size;
+		long modified;
+		String hash;
+		CachedResult result;
+
+		Entry(String path, long size, long modified, String hash, CachedResult result) {
+			this.path = path;
+			this.size = size;
+			this.modified = modified;
+			this.hash = hash;
+			this.result = result;
+		}
+	}
+
+	private File store;
+	private int maxEntries;
+	// by canonical path, least recently used first
+	private LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private Map<String, Entry> byHash = new HashMap<>();
+	// entries of each file size, a file whose size is not here can't match by content
+	private Map<Long, Integer> sizes = new HashMap<>();
+	private int unsaved;
+	private final Object saving = new Object();
+
+	public ResultCache(File directory) throws IOException {
+		this(directory, DEFAULT_MAX_ENTRIES);
+	}
+
+	public ResultCache(File directory, int maxEntries) throws IOException {
+		Files.createDirectories(directory.toPath());
+		this.store = new File(directory, FILE_NAME);
+		this.maxEntries = Math.max(1, maxEntries);
+		load();
+	}
+
+	public CachedResult lookup(File file) throws IOException {
+		String path = file.getCanonicalPath();
+		long size = file.length();
+		long modified = file.lastModified();
+		synchronized (this) {
+			Entry entry = entries.get(path);
+			if (entry != null && entry.size == size && entry.modified == modified) {
+				return entry.result;
+			}
+			if (!sizes.containsKey(size)) {
+				return null;
+			}
+		}
+		// touched or copied: the content decides
+		String hash = hash(file);
+		synchronized (this) {
+			Entry known = byHash.get(hash);
+			if (known == null) {
+				return null;
+			}
+			put(new Entry(path, size, modified, hash, known.result));
+			return known.result;
+		}
+	}
+
+	public void store(File file, long size, long modified, boolean valid, String reason) throws IOException {
+		store(file, size, modified, hash(file), valid, reason);
+	}
+
+	public void store(File file, long size, long modified, String hash, boolean valid, String reason)
+			throws IOException {
+		// size and modification time are the ones seen before validating, a file changed since then is not stored
+		if (file.length() != size || file.lastModified() != modified) {
+			return;
+		}
+		boolean save;
+		synchronized (this) {
+			put(new Entry(file.getCanonicalPath(), size, modified, hash, new CachedResult(valid, reason)));
+			save = ++unsaved >= SAVE_INTERVAL;
+		}
+		if (save) {
+			save();
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private void put(Entry entry) {
+		Entry old = entries.put(entry.path, entry);
+		if (old != null) {
+			forget(old);
+		}
+		byHash.put(entry.hash, entry);
+		sizes.merge(entry.size, 1, Integer::sum);
+		Iterator<Entry> it = entries.values().iterator();
+		while (entries.size() > maxEntries && it.hasNext()) {
+			Entry eldest = it.next();
+			it.remove();
+			forget(eldest);
+		}
+	}
+
+	private void forget(Entry entry) {
+		if (byHash.get(entry.hash) == entry) {
+			byHash.remove(entry.hash);
+		}
+		sizes.computeIfPresent(entry.size, (k, v) -> v > 1 ? v - 1 : null);
+	}
+
+	public static MessageDigest newDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform implements SHA-256
+			throw new IOException(e);
+		}
+	}
+
+	public static String format(MessageDigest digest) {
+		// the hash of every byte given to the digest, as stored in the cache
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static String hash(File file) throws IOException {
+		MessageDigest digest = newDigest();
+		try (InputStream in = new FileInputStream(file)) {
+			byte[] buffer = new byte[1 << 16];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return format(digest);
+	}
+
+	private void load() {
+		if (!store.exists()) {
+			return;
+		}
+		try {
+			JSONObject json = new JSONObject(Files.readString(store.toPath(), StandardCharsets.UTF_8));
+			if (!Constants.VERSION.equals(json.optString("version"))) {
+				// results of another validator version may no longer hold
+				return;
+			}
+			JSONArray array = json.getJSONArray("entries");
+			for (int i = 0; i < array.length(); i++) {
+				JSONObject e = array.getJSONObject(i);
+				CachedResult result = new CachedResult(e.getBoolean("v"), e.optString("r", null));
+				put(new Entry(e.getString("p"), e.getLong("s"), e.getLong("m"), e.getString("h"), result));
+			}
+		} catch (IOException | JSONException e) {
+			MessageFormat mf = new MessageFormat(Messages.getString("ResultCache.0"));
+			LOGGER.log(Level.WARNING, mf.format(new Object[] { store.getPath(), e.getMessage() }));
+			entries.clear();
+			byHash.clear();
+			sizes.clear();
+		}
+	}
+
+	public void save() throws IOException {
+		JSONArray array = new JSONArray();
+		synchronized (this) {
+			for (Entry entry : entries.values()) {
+				JSONObject e = new JSONObject();
+				e.put("p", entry.path);
+				e.put("s", entry.size);
+				e.put("m", entry.modified);
+				e.put("h", entry.hash);
+				e.put("v", entry.result.isValid());
+				if (entry.result.getReason() != null) {
+					e.put("r", entry.result.getReason());
+				}
+				array.put(e);
+			}
+			unsaved = 0;
+		}
+		JSONObject json = new JSONObject();
+		json.put("version", Constants.VERSION);
+		json.put("entries", array);
+		synchronized (saving) {
+			File temp = new File(store.getParentFile(), FILE_NAME + ".tmp");
+			Files.writeString(temp.toPath(), json.toString(), StandardCharsets.UTF_8);
+			Files.move(temp.toPath(), store.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		boolean dirty;
+		synchronized (this) {
+			dirty = unsaved > 0;
+		}
+		if (dirty) {
+			save();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.util.List;
+
+public class SampleResult {
+
+	// normal quantile for a two-sided 95% confidence interval
+	public static final double Z_95 = 1.959964;
+
+	public static class Sample {
+
+		private long offset;
+		private long length;
+		private long gap;
+		private int hits;
+		private List<ValidationError> errors;
+
+		Sample(long offset, long length, long gap, int hits, List<ValidationError> errors) {
+			this.offset = offset;
+			this.length = length;
+			this.gap = Math.max(1, gap);
+			this.hits = hits;
+			this.errors = errors;
+		}
+
+		public long getOffset() {
+			// byte offset of the <tu> start tag, error lines and columns count from there
+			return offset;
+		}
+
+		public long getLength() {
+			// bytes up to the next <tu>, comments and whitespace after the sampled one included
+			return length;
+		}
+
+		public long getGap() {
+			// bytes from the previous <tu> start tag, or from <body>, to this one: offsets there resync on it
+			return gap;
+		}
+
+		public int getHits() {
+			// sample offsets that resynced on this <tu>
+			return hits;
+		}
+
+		public List<ValidationError> getErrors() {
+			return errors;
+		}
+	}
+
+	private List<ValidationError> headerErrors;
+	private List<Sample> samples;
+	private long bodySize;
+	private int draws;
+	private int defective;
+
+	// each <tu> is found with a probability proportional to its gap, sums of 1 / gap per offset undo that
+	private double weights;
+	private double defectiveWeights;
+	private double squaredWeights;
+
+	public SampleResult(List<ValidationError> headerErrors, List<Sample> samples, long bodySize, int draws) {
+		this.headerErrors = headerErrors;
+		this.samples = samples;
+		this.bodySize = bodySize;
+		this.draws = draws;
+		for (Sample sample : samples) {
+			double weight = 1.0 / sample.getGap();
+			weights += sample.getHits() * weight;
+			squaredWeights += sample.getHits() * weight * weight;
+			if (!sample.getErrors().isEmpty()) {
+				defective++;
+				defectiveWeights += sample.getHits() * weight;
+			}
+		}
+	}
+
+	public List<ValidationError> getHeaderErrors() {
+		// errors outside <body>: the XML declaration, DOCTYPE, <header> and the end of the file
+		return headerErrors;
+	}
+
+	public List<Sample> getSamples() {
+		return samples;
+	}
+
+	public int getSampled() {
+		return samples.size();
+	}
+
+	public int getDefective() {
+		return defective;
+	}
+
+	public long getEstimatedTus() {
+		// Hansen-Hurwitz: every offset stands for <body> size / gap <tu> elements, averaged over the offsets
+		return draws == 0 ? 0 : Math.round(bodySize * weights / draws);
+	}
+
+	public double getDefectRate() {
+		// weighted share of defective <tu> elements; an unweighted one favors <tu> elements after long ones
+		return weights == 0 ? 0 : defectiveWeights / weights;
+	}
+
+	public double getLowerBound() {
+		return bound(-1);
+	}
+
+	public double getUpperBound() {
+		return bound(1);
+	}
+
+	private double bound(int sign) {
+		// Wilson score interval, it stays inside [0, 1] when no sample or every sample has errors.
+		// Unequal weights carry less information than as many equal ones, n is Kish's effective sample size
+		if (weights == 0) {
+			return sign < 0 ? 0 : 1;
+		}
+		double n = weights * weights / squaredWeights;
+		double p = getDefectRate();
+		double z2 = Z_95 * Z_95;
+		double center = p + z2 / (2 * n);
+		double spread = Z_95 * Math.sqrt(p * (1 - p) / n + z2 / (4.0 * n * n));
+		double value = (center + sign * spread) / (1 + z2 / n);
+		return Math.min(1, Math.max(0, value));
+	}
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ServerMetrics {
+
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	public static final String VALID = "valid";
+	public static final String INVALID = "invalid";
+	public static final String CANCELLED = "cancelled";
+	public static final String TIMED_OUT = "timed_out";
+	public static final String FAILED = "error";
+
+	// upper bounds, in seconds, of the job duration buckets
+	private static final double[] BUCKETS = { 0.01, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 300 };
+
+	// upper bounds, in bytes, of the file size classes that get their own histogram
+	private static final long[] SIZES = { 1L << 20, 16L << 20, 256L << 20, Long.MAX_VALUE };
+	private static final String[] SIZE_NAMES = { "1MiB", "16MiB", "256MiB", "larger" };
+
+	// the last slot of each row counts the jobs slower than the last bucket
+	private LongAdder[][] durations;
+	private DoubleAdder[] durationSums;
+
+	private Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+	private Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+	private LongAdder bytes = new LongAdder();
+	private LongAdder tus = new LongAdder();
+	private DoubleAdder seconds = new DoubleAdder();
+	private LongAdder rejected = new LongAdder();
+	private LongAdder cacheHits = new LongAdder();
+
+	public ServerMetrics() {
+		durations = new LongAdder[SIZES.length][BUCKETS.length + 1];
+		durationSums = new DoubleAdder[SIZES.length];
+		for (int i = 0; i < SIZES.length; i++) {
+			for (int j = 0; j <= BUCKETS.length; j++) {
+				durations[i][j] = new LongAdder();
+			}
+			durationSums[i] = new DoubleAdder();
+		}
+	}
+
+	public void jobFinished(String outcome, long size, long tuCount, long nanos) {
+		double elapsed = nanos / 1e9;
+		int sizeClass = 0;
+		while (size > SIZES[sizeClass]) {
+			sizeClass++;
+		}
+		int bucket = 0;
+		while (bucket < BUCKETS.length && elapsed > BUCKETS[bucket]) {
+			bucket++;
+		}
+		durations[sizeClass][bucket].increment();
+		durationSums[sizeClass].add(elapsed);
+		outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+		bytes.add(size);
+		tus.add(tuCount);
+		seconds.add(elapsed);
+	}
+
+	public void cacheHit(String outcome) {
+		// the result was known, no bytes were read: durations and throughput only count real validations
+		outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+		cacheHits.increment();
+	}
+
+	public void errorsFound(List<ValidationError> found) {
+		// errors reported by the parser itself have no key of their own
+		if (found.isEmpty()) {
+			errors.computeIfAbsent(ValidationError.PARSER_ERROR, k -> new LongAdder()).increment();
+			return;
+		}
+		for (ValidationError error : found) {
+			errors.computeIfAbsent(error.getKey(), k -> new LongAdder()).increment();
+		}
+	}
+
+	public void rejected() {
+		rejected.increment();
+	}
+
+	public String format(int queueDepth, int activeJobs, int idleValidators) {
+		StringBuilder sb = new StringBuilder();
+		gauge(sb, "tmxvalidator_queue_depth", "Validations waiting for a worker", queueDepth);
+		gauge(sb, "tmxvalidator_active_jobs", "Validations running now", activeJobs);
+		gauge(sb, "tmxvalidator_idle_validators", "Validators kept in the pool for reuse", idleValidators);
+		counter(sb, "tmxvalidator_rejected_total", "Validations refused because the queue was full",
+				rejected.sum());
+		counter(sb, "tmxvalidator_result_cache_hits_total", "Validations answered by the result cache",
+				cacheHits.sum());
+
+		header(sb, "tmxvalidator_jobs_total", "Finished validations by outcome", "counter");
+		for (Map.Entry<String, Long> entry : sorted(outcomes).entrySet()) {
+			sb.append("tmxvalidator_jobs_total{outcome=\"").append(entry.getKey()).append("\"} ")
+					.append(entry.getValue()).append('\n');
+		}
+
+		header(sb, "tmxvalidator_job_duration_seconds", "Validation time by file size", "histogram");
+		for (int i = 0; i < SIZES.length; i++) {
+			String size = "size=\"" + SIZE_NAMES[i] + "\"";
+			long cumulative = 0;
+			for (int j = 0; j < BUCKETS.length; j++) {
+				cumulative += durations[i][j].sum();
+				sb.append("tmxvalidator_job_duration_seconds_bucket{").append(size).append(",le=\"")
+						.append(BUCKETS[j]).append("\"} ").append(cumulative).append('\n');
+			}
+			cumulative += durations[i][BUCKETS.length].sum();
+			sb.append("tmxvalidator_job_duration_seconds_bucket{").append(size).append(",le=\"+Inf\"} ")
+					.append(cumulative).append('\n');
+			sb.append("tmxvalidator_job_duration_seconds_sum{").append(size).append("} ")
+					.append(durationSums[i].sum()).append('\n');
+			sb.append("tmxvalidator_job_duration_seconds_count{").append(size).append("} ").append(cumulative)
+					.append('\n');
+		}
+
+		long totalBytes = bytes.sum();
+		long totalTus = tus.sum();
+		double totalSeconds = seconds.sum();
+		counter(sb, "tmxvalidator_bytes_total", "Bytes validated", totalBytes);
+		counter(sb, "tmxvalidator_tus_total", "Translation units validated", totalTus);
+		counter(sb, "tmxvalidator_validation_seconds_total", "Time spent in validations", totalSeconds);
+		gauge(sb, "tmxvalidator_bytes_per_second", "Bytes validated per second of validation time",
+				totalSeconds > 0 ? totalBytes / totalSeconds : 0);
+		gauge(sb, "tmxvalidator_tus_per_second", "Translation units validated per second of validation time",
+				totalSeconds > 0 ? totalTus / totalSeconds : 0);
+
+		header(sb, "tmxvalidator_errors_total", "Errors found, by message key", "counter");
+		for (Map.Entry<String, Long> entry : sorted(errors).entrySet()) {
+			sb.append("tmxvalidator_errors_total{key=\"").append(entry.getKey()).append("\"} ")
+					.append(entry.getValue()).append('\n');
+		}
+
+		long hits = LanguageCache.getHits();
+		long misses = LanguageCache.getMisses();
+		counter(sb, "tmxvalidator_language_cache_hits_total", "Language codes found in the cache", hits);
+		counter(sb, "tmxvalidator_language_cache_misses_total", "Language codes checked against the registry",
+				misses);
+		gauge(sb, "tmxvalidator_language_cache_hit_ratio", "Share of language checks answered by the cache",
+				hits + misses > 0 ? (double) hits / (hits + misses) : 0);
+		gauge(sb, "tmxvalidator_language_cache_entries", "Language codes in the cache", LanguageCache.size());
+
+		Runtime runtime = Runtime.getRuntime();
+		gauge(sb, "jvm_memory_heap_used_bytes", "Heap in use", runtime.totalMemory() - runtime.freeMemory());
+		gauge(sb, "jvm_memory_heap_max_bytes", "Largest heap the JVM will use", runtime.maxMemory());
+		return sb.toString();
+	}
+
+	private static Map<String, Long> sorted(Map<String, LongAdder> map) {
+		Map<String, Long> result = new TreeMap<>();
+		map.forEach((k, v) -> result.put(k, v.sum()));
+		return result;
+	}
+
+	private static void header(StringBuilder sb, String name, String help, String type) {
+		sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void gauge(StringBuilder sb, String name, String help, Number value) {
+		header(sb, name, help, "gauge");
+		sb.append(name).append(' ').append(value).append('\n');
+	}
+
+	private static void counter(StringBuilder sb, String name, String help, Number value) {
+		header(sb, name, help, "counter");
+		sb.append(name).append(' ').append(value).append('\n');
+	}
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+public class TMXErrorHandler implements ErrorHandler {
+
+	private static final Logger LOGGER = System.getLogger(TMXErrorHandler.class.getName());
+
+	private TMXValidatingHandler handler;
+
+	public TMXErrorHandler(TMXValidatingHandler handler) {
+		this.handler = handler;
+	}
+
+	@Override
+	public void warning(SAXParseException exception) throws SAXException {
+		LOGGER.log(Level.WARNING, exception.getMessage());
+	}
+
+	@Override
+	public void error(SAXParseException exception) throws SAXException {
+		// DTD validity errors are recoverable, keep parsing
+		handler.addError(exception);
+	}
+
+	@Override
+	public void fatalError(SAXParseException exception) throws SAXException {
+		throw exception;
+	}
+}
@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class TMXGenerator {
+
+	private static final Logger LOGGER = System.getLogger(TMXGenerator.class.getName());
+
+	public enum ErrorKind {
+		DATE, LANG, USAGECOUNT, UNBALANCED, PAIRING, XVALUE, XDUPLICATE, XMISMATCH, SRCLANG, TUVLANG
+	}
+
+	private static final String[] LANGUAGES = { "en", "es", "fr-FR", "de", "it", "pt-BR", "ja", "zh-CN", "ru",
+			"ar", "nl", "sv", "ko", "pl", "tr", "el" };
+
+	private static final String[] WORDS = { "the", "memory", "translation", "segment", "exchange", "validator",
+			"language", "unit", "variant", "header", "body", "file", "format", "check", "value", "date", "tool",
+			"text", "source", "target" };
+
+	private static final int BPT = 0;
+	private static final int PH = 1;
+	private static final int IT = 2;
+
+	private String version = "1.4";
+	private long tus = 1000;
+	private int languages = 2;
+	private int segmentLength = 12;
+	private double inlineDensity = 1.0;
+	private int props;
+	private int notes;
+	private boolean doctype = true;
+	private long seed = 1;
+	private Map<ErrorKind, Double> errorRates = new EnumMap<>(ErrorKind.class);
+
+	private SplittableRandom random;
+	private String langAttribute;
+	private long errorCount;
+
+	// inline tags planned for the current <tu>, shared by all its <tuv> elements
+	private int[] tagKinds = new int[16];
+	private int tagCount;
+
+	public TMXGenerator() {
+		// 1000 <tu> elements in two languages and no errors until setters change them
+	}
+
+	public void setVersion(String version) {
+		if (!(version.equals("1.1") || version.equals("1.2") || version.equals("1.3") || version.equals("1.4"))) {
+			MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.2"));
+			throw new IllegalArgumentException(mf.format(new Object[] { version }));
+		}
+		this.version = version;
+	}
+
+	public void setTus(long tus) {
+		this.tus = tus;
+	}
+
+	public void setLanguages(int languages) {
+		this.languages = Math.max(1, Math.min(languages, LANGUAGES.length));
+	}
+
+	public void setSegmentLength(int segmentLength) {
+		this.segmentLength = Math.max(1, segmentLength);
+	}
+
+	public void setInlineDensity(double inlineDensity) {
+		this.inlineDensity = Math.max(0.0, inlineDensity);
+	}
+
+	public void setProps(int props) {
+		this.props = props;
+	}
+
+	public void setNotes(int notes) {
+		this.notes = notes;
+	}
+
+	public void setDoctype(boolean doctype) {
+		this.doctype = doctype;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public void setErrorRate(ErrorKind kind, double rate) {
+		errorRates.put(kind, rate);
+	}
+
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	public void generate(File file) throws IOException {
+		try (Writer out = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+			generate(out);
+		}
+	}
+
+	public void generate(Writer out) throws IOException {
+		random = new SplittableRandom(seed);
+		langAttribute = version.equals("1.1") || version.equals("1.2") ? "lang" : "xml:lang";
+		errorCount = 0;
+		out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		if (doctype) {
+			out.write("<!DOCTYPE tmx SYSTEM \"" + TMXProlog.getSystemId(version) + "\">\n");
+		}
+		out.write("<tmx version=\"" + version + "\">\n");
+		out.write("<header creationtool=\"TMXGenerator\" creationtoolversion=\"" + Constants.VERSION
+				+ "\" segtype=\"sentence\" o-tmf=\"TMXGenerator\" adminlang=\"en\" srclang=\"" + LANGUAGES[0]
+				+ "\" datatype=\"plaintext\" creationdate=\"" + date() + "\"");
+		if (props == 0 && notes == 0) {
+			out.write("/>\n");
+		} else {
+			out.write(">\n");
+			for (int i = 0; i < notes; i++) {
+				out.write("<note>Generated note " + i + "</note>\n");
+			}
+			for (int i = 0; i < props; i++) {
+				out.write("<prop type=\"x-generated-" + i + "\">" + WORDS[random.nextInt(WORDS.length)]
+						+ "</prop>\n");
+			}
+			out.write("</header>\n");
+		}
+		out.write("<body>\n");
+		for (long i = 1; i <= tus; i++) {
+			writeTu(out, i);
+		}
+		out.write("</body>\n</tmx>\n");
+	}
+
+	private boolean inject(ErrorKind kind) {
+		Double rate = errorRates.get(kind);
+		return rate != null && random.nextDouble() < rate;
+	}
+
+	private void writeTu(Writer out, long id) throws IOException {
+		planTags();
+		boolean badDate = inject(ErrorKind.DATE);
+		boolean badLang = inject(ErrorKind.LANG);
+		boolean badCount = inject(ErrorKind.USAGECOUNT);
+		boolean unbalanced = hasTag(BPT) && inject(ErrorKind.UNBALANCED);
+		boolean badPairing = hasTag(BPT) && inject(ErrorKind.PAIRING);
+		boolean badX = tagCount > 0 && inject(ErrorKind.XVALUE);
+		boolean duplicateX = inject(ErrorKind.XDUPLICATE);
+		boolean mismatchX = tagCount > 0 && languages > 1 && inject(ErrorKind.XMISMATCH);
+		boolean noSrcLang = inject(ErrorKind.SRCLANG);
+		boolean noTuvLang = inject(ErrorKind.TUVLANG);
+		// some errors hide others in the same place, only the ones written are counted
+		badPairing = badPairing && !unbalanced;
+		mismatchX = mismatchX && !badX;
+		badLang = badLang && !noTuvLang;
+		noSrcLang = noSrcLang && !(languages == 1 && (badLang || noTuvLang));
+		for (boolean written : new boolean[] { badDate, badLang, badCount, unbalanced, badPairing, badX, duplicateX,
+				mismatchX, noSrcLang, noTuvLang }) {
+			if (written) {
+				errorCount++;
+			}
+		}
+
+		out.write("<tu tuid=\"" + id + "\" creationdate=\"" + (badDate ? "20231345T256161Z" : date()) + "\">\n");
+		for (int l = 0; l < languages; l++) {
+			String lang = LANGUAGES[l];
+			if (l == 0 && noSrcLang) {
+				lang = LANGUAGES[languages < LANGUAGES.length ? languages : 1];
+			}
+			if (l == languages - 1 && badLang) {
+				lang = "12-@@";
+			}
+			out.write("<tuv");
+			if (!(l == languages - 1 && noTuvLang)) {
+				out.write(" " + langAttribute + "=\"" + lang + "\"");
+			}
+			if (l == 0 && badCount) {
+				out.write(" usagecount=\"many\"");
+			}
+			out.write("><seg>");
+			boolean last = l == languages - 1;
+			writeSegment(out, last && unbalanced, last && badPairing, last && badX, duplicateX, last && mismatchX);
+			out.write("</seg></tuv>\n");
+		}
+		out.write("</tu>\n");
+	}
+
+	private void planTags() {
+		tagCount = 0;
+		// inlineDensity is the mean number of inline tags per segment
+		double p = inlineDensity / segmentLength;
+		for (int w = 0; w < segmentLength; w++) {
+			if (random.nextDouble() < p) {
+				if (tagCount == tagKinds.length) {
+					int[] larger = new int[tagCount * 2];
+					System.arraycopy(tagKinds, 0, larger, 0, tagCount);
+					tagKinds = larger;
+				}
+				tagKinds[tagCount++] = random.nextInt(3);
+			}
+		}
+	}
+
+	private boolean hasTag(int kind) {
+		for (int i = 0; i < tagCount; i++) {
+			if (tagKinds[i] == kind) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void writeSegment(Writer out, boolean unbalanced, boolean badPairing, boolean badX, boolean duplicateX,
+			boolean mismatchX) throws IOException {
+		int words = Math.max(1, segmentLength / 2 + random.nextInt(segmentLength + 1));
+		int tag = 0;
+		boolean brokenPair = false;
+		for (int w = 0; w < words || tag < tagCount; w++) {
+			if (w > 0) {
+				out.write(' ');
+			}
+			if (w < words) {
+				out.write(WORDS[random.nextInt(WORDS.length)]);
+			}
+			if (tag < tagCount && (w >= words || random.nextInt(words) < tagCount)) {
+				int n = tag + 1;
+				String x = badX && tag == 0 ? "x" + n : String.valueOf(mismatchX && tag == 0 ? n + 1000 : n);
+				switch (tagKinds[tag]) {
+					case BPT -> {
+						out.write("<bpt i=\"" + n + "\" x=\"" + x + "\">&lt;b&gt;</bpt>bold");
+						if (unbalanced && !brokenPair) {
+							brokenPair = true;
+						} else if (badPairing && !brokenPair) {
+							brokenPair = true;
+							out.write("<ept i=\"" + (n + 500) + "\">&lt;/b&gt;</ept>");
+						} else {
+							out.write("<ept i=\"" + n + "\">&lt;/b&gt;</ept>");
+						}
+					}
+					case IT -> out.write("<it pos=\"begin\" x=\"" + x + "\">&lt;i&gt;</it>");
+					default -> out.write("<ph x=\"" + x + "\">&lt;br/&gt;</ph>");
+				}
+				tag++;
+			}
+		}
+		if (duplicateX) {
+			out.write(" <ph x=\"1\">&lt;br/&gt;</ph><ph x=\"1\">&lt;br/&gt;</ph>");
+		}
+	}
+
+	private String date() {
+		int year = 2000 + random.nextInt(25);
+		int month = 1 + random.nextInt(12);
+		int day = 1 + random.nextInt(28);
+		return String.format(Locale.ROOT, "%04d%02d%02dT%02d%02d%02dZ", year, month, day, random.nextInt(24),
+				random.nextInt(60), random.nextInt(60));
+	}
+
+	public static void main(String[] args) {
+		TMXGenerator generator = new TMXGenerator();
+		String output = "";
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				String value = i + 1 < args.length ? args[i + 1] : "";
+				switch (arg) {
+					case "-help" -> {
+						help();
+						return;
+					}
+					case "-output" -> output = value;
+					case "-tmxVersion" -> generator.setVersion(value);
+					case "-tus" -> generator.setTus(Long.parseLong(value));
+					case "-languages" -> generator.setLanguages(Integer.parseInt(value));
+					case "-segmentLength" -> generator.setSegmentLength(Integer.parseInt(value));
+					case "-inlineDensity" -> generator.setInlineDensity(Double.parseDouble(value));
+					case "-props" -> generator.setProps(Integer.parseInt(value));
+					case "-notes" -> generator.setNotes(Integer.parseInt(value));
+					case "-seed" -> generator.setSeed(Long.parseLong(value));
+					case "-noDoctype" -> generator.setDoctype(false);
+					case "-errors" -> {
+						for (String pair : value.split(",")) {
+							String[] parts = pair.split("=");
+							generator.setErrorRate(ErrorKind.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+									Double.parseDouble(parts[1]));
+						}
+					}
+					default -> {
+						// option values
+					}
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			LOGGER.log(Level.ERROR, e.getMessage());
+			help();
+			return;
+		}
+		if (output.isEmpty()) {
+			help();
+			return;
+		}
+		try {
+			generator.generate(new File(output));
+			MessageFormat mf = new MessageFormat(Messages.getString("TMXGenerator.1"));
+			LOGGER.log(Level.INFO, mf.format(new Object[] { output, generator.getErrorCount() }));
+		} catch (IOException e) {
+			LOGGER.log(Level.ERROR, e.getMessage());
+		}
+	}
+
+	private static void help() {
+		System.out.println(Messages.getString("TMXGenerator.0"));
+	}
+}
@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.xml.sax.InputSource;
+
+public class TMXProlog {
+
+	public static final int HEAD_SIZE = 16 * 1024;
+
+	private static final Pattern ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([A-Za-z0-9._\\-]+)[\"']");
+	private static final Pattern VERSION = Pattern.compile("\\sversion\\s*=\\s*[\"']([^\"']*)[\"']");
+
+	private Charset charset;
+	private boolean bom;
+	private int declEnd;
+	private boolean doctype;
+	private boolean internalSubset;
+	private String root;
+	private String version;
+
+	private TMXProlog() {
+		// use read()
+	}
+
+	public static TMXProlog read(BufferedInputStream in) throws IOException {
+		TMXProlog prolog = new TMXProlog();
+		in.mark(HEAD_SIZE);
+		byte[] head = in.readNBytes(HEAD_SIZE);
+		in.reset();
+		prolog.detectCharset(head);
+		prolog.parse(decode(head, prolog.charset));
+		return prolog;
+	}
+
+	public static TMXProlog read(BufferedReader in) throws IOException {
+		// characters are already decoded, the encoding declaration does not apply
+		TMXProlog prolog = new TMXProlog();
+		in.mark(HEAD_SIZE);
+		char[] head = new char[HEAD_SIZE];
+		int read = 0;
+		while (read < HEAD_SIZE) {
+			int count = in.read(head, read, HEAD_SIZE - read);
+			if (count == -1) {
+				break;
+			}
+			read += count;
+		}
+		in.reset();
+		String text = new String(head, 0, read);
+		prolog.bom = text.startsWith("\uFEFF");
+		prolog.parse(text);
+		return prolog;
+	}
+
+	private void detectCharset(byte[] head) {
+		charset = StandardCharsets.UTF_8;
+		if (head.length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+			bom = true;
+			return;
+		}
+		if (head.length >= 2 && (((head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF)
+				|| ((head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE))) {
+			// the UTF-16 decoder consumes the byte order mark
+			charset = StandardCharsets.UTF_16;
+			return;
+		}
+		if (head.length >= 2 && head[0] == 0 && head[1] == '<') {
+			charset = StandardCharsets.UTF_16BE;
+			return;
+		}
+		if (head.length >= 2 && head[0] == '<' && head[1] == 0) {
+			charset = StandardCharsets.UTF_16LE;
+			return;
+		}
+		String ascii = new String(head, 0, Math.min(head.length, 200), StandardCharsets.ISO_8859_1);
+		if (ascii.startsWith("<?xml")) {
+			int end = ascii.indexOf("?>");
+			Matcher matcher = ENCODING.matcher(end != -1 ? ascii.substring(0, end) : ascii);
+			if (matcher.find() && Charset.isSupported(matcher.group(1))) {
+				charset = Charset.forName(matcher.group(1));
+			}
+		}
+	}
+
+	private static String decode(byte[] head, Charset charset) {
+		// a character split at the end of the buffer is harmless here
+		return new String(head, charset);
+	}
+
+	private void parse(String text) {
+		int i = 0;
+		if (bom && text.startsWith("\uFEFF")) {
+			text = text.substring(1);
+		}
+		if (text.startsWith("<?xml")) {
+			int end = text.indexOf("?>");
+			if (end == -1) {
+				return;
+			}
+			declEnd = end + 2;
+			i = declEnd;
+		}
+		while (i < text.length()) {
+			char c = text.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (text.startsWith("<!--", i)) {
+				int end = text.indexOf("-->", i + 4);
+				if (end == -1) {
+					return;
+				}
+				i = end + 3;
+			} else if (text.startsWith("<?", i)) {
+				int end = text.indexOf("?>", i + 2);
+				if (end == -1) {
+					return;
+				}
+				i = end + 2;
+			} else if (text.startsWith("<!DOCTYPE", i)) {
+				doctype = true;
+				int end = text.indexOf('>', i);
+				int bracket = text.indexOf('[', i);
+				internalSubset = bracket != -1 && (end == -1 || bracket < end);
+				return;
+			} else if (c == '<') {
+				int end = text.indexOf('>', i);
+				if (end == -1) {
+					return;
+				}
+				String tag = text.substring(i + 1, end);
+				int nameEnd = 0;
+				while (nameEnd < tag.length() && !Character.isWhitespace(tag.charAt(nameEnd))
+						&& tag.charAt(nameEnd) != '/') {
+					nameEnd++;
+				}
+				root = tag.substring(0, nameEnd);
+				Matcher matcher = VERSION.matcher(tag);
+				if (matcher.find()) {
+					version = matcher.group(1);
+				}
+				return;
+			} else {
+				return;
+			}
+		}
+	}
+
+	public boolean hasDoctype() {
+		return doctype;
+	}
+
+	public boolean hasInternalSubset() {
+		return internalSubset;
+	}
+
+	public boolean isAsciiCompatible() {
+		// '<' and '>' can be found by byte in these encodings
+		String name = charset.name();
+		return !(name.startsWith("UTF-16") || name.startsWith("UTF-32"));
+	}
+
+	public String getRoot() {
+		return root;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	public boolean needsDoctype() {
+		return !doctype && "tmx".equals(root);
+	}
+
+	public InputSource getInputSource(InputStream in, String systemId) throws IOException {
+		if (doctype || (root != null && !needsDoctype())) {
+			InputSource source = new InputSource(in);
+			source.setSystemId(systemId);
+			return source;
+		}
+		return getInputSource(new InputStreamReader(in, charset), systemId);
+	}
+
+	public InputSource getInputSource(Reader reader, String systemId) throws IOException {
+		if (bom) {
+			reader.skip(1);
+		}
+		if (!doctype && root == null) {
+			// the root element is past the sample, declare the DTD when the reader gets to it
+			InputSource source = new InputSource(new DoctypeReader(reader));
+			source.setSystemId(systemId);
+			return source;
+		}
+		if (!needsDoctype()) {
+			InputSource source = new InputSource(reader);
+			source.setSystemId(systemId);
+			return source;
+		}
+		return inject(reader, systemId);
+	}
+
+	private InputSource inject(Reader reader, String systemId) throws IOException {
+		// TMX DTD was not declared, add it right after the XML declaration without changing line numbers
+		char[] decl = new char[declEnd];
+		int read = 0;
+		while (read < declEnd) {
+			int count = reader.read(decl, read, declEnd - read);
+			if (count == -1) {
+				break;
+			}
+			read += count;
+		}
+		String prefix = new String(decl, 0, read) + "<!DOCTYPE tmx SYSTEM \"" + getSystemId(version) + "\">";
+		InputSource source = new InputSource(new PrefixedReader(prefix, reader));
+		source.setSystemId(systemId);
+		return source;
+	}
+
+	public static String getSystemId(String version) {
+		if ("1.3".equals(version)) {
+			return "tmx13.dtd";
+		}
+		if ("1.2".equals(version)) {
+			return "tmx12.dtd";
+		}
+		if ("1.1".equals(version)) {
+			return "tmx11.dtd";
+		}
+		return "tmx14.dtd";
+	}
+
+	private static class DoctypeReader extends Reader {
+
+		private static final int MAX_TAG = 64 * 1024;
+
+		private Reader reader;
+		private StringBuilder pending = new StringBuilder();
+		private int position;
+		private boolean done;
+
+		DoctypeReader(Reader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			while (!done && position >= pending.length()) {
+				pending.setLength(0);
+				position = 0;
+				scan();
+			}
+			if (position < pending.length()) {
+				int count = Math.min(len, pending.length() - position);
+				pending.getChars(position, position + count, cbuf, off);
+				position += count;
+				return count;
+			}
+			return reader.read(cbuf, off, len);
+		}
+
+		private void scan() throws IOException {
+			// copies one item of the prolog, the DOCTYPE goes right before the root element
+			int c = reader.read();
+			if (c == -1) {
+				done = true;
+				return;
+			}
+			pending.append((char) c);
+			if (c != '<') {
+				return;
+			}
+			int next = reader.read();
+			if (next == -1) {
+				done = true;
+				return;
+			}
+			pending.append((char) next);
+			if (next == '?') {
+				copyUntil("?>");
+			} else if (next == '!') {
+				int dash = reader.read();
+				if (dash != -1) {
+					pending.append((char) dash);
+				}
+				if (dash == '-') {
+					copyUntil("-->");
+				} else {
+					// a DOCTYPE declaration, nothing to add
+					done = true;
+				}
+			} else {
+				copyTag();
+				done = true;
+				String tag = pending.substring(1);
+				if (tag.startsWith("tmx") && (tag.length() == 3 || !Character.isLetterOrDigit(tag.charAt(3)))) {
+					Matcher matcher = VERSION.matcher(tag);
+					String found = matcher.find() ? matcher.group(1) : null;
+					pending.insert(0, "<!DOCTYPE tmx SYSTEM \"" + getSystemId(found) + "\">");
+				}
+			}
+		}
+
+		private void copyUntil(String end) throws IOException {
+			while (pending.length() < end.length() || !pending.substring(pending.length() - end.length()).equals(end)) {
+				int c = reader.read();
+				if (c == -1) {
+					done = true;
+					return;
+				}
+				pending.append((char) c);
+			}
+		}
+
+		private void copyTag() throws IOException {
+			char quote = 0;
+			while (pending.length() < MAX_TAG) {
+				int c = reader.read();
+				if (c == -1) {
+					return;
+				}
+				pending.append((char) c);
+				if (quote != 0) {
+					if (c == quote) {
+						quote = 0;
+					}
+				} else if (c == '"' || c == '\'') {
+					quote = (char) c;
+				} else if (c == '>') {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
+	private static class PrefixedReader extends Reader {
+
+		private String prefix;
+		private int position;
+		private Reader reader;
+
+		PrefixedReader(String prefix, Reader reader) {
+			this.prefix = prefix;
+			this.reader = reader;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (position < prefix.length()) {
+				int count = Math.min(len, prefix.length() - position);
+				prefix.getChars(position, position + count, cbuf, off);
+				position += count;
+				return count;
+			}
+			return reader.read(cbuf, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+}
@@ -11,8 +11,12 @@
  *******************************************************************************/ 
 package com.maxprograms.tmxvalidation;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.URL;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
@@ -20,42 +24,62 @@ import org.xml.sax.SAXException;
 
 public class TMXResolver implements EntityResolver {
 
+	// DTD files are read from the module once and shared by all validators
+	private static final Map<String, byte[]> DTDS = new ConcurrentHashMap<>();
+
 	@Override
 	public InputSource resolveEntity(String publicId, String systemId) throws SAXException, IOException {
 
 		if (publicId != null) {
 			if (publicId.equals("-//LISA OSCAR:1998//DTD for Translation Memory eXchange//EN")) {
-				URL url = TMXResolver.class.getResource("tmx14.dtd");
-				return new InputSource(url.openStream());
+				return getSource("tmx14.dtd");
 			}
 			if (publicId.equals("http://www.lisa.org/tmx14")) {
-				URL url = TMXResolver.class.getResource("tmx14.dtd");
-				return new InputSource(url.openStream());
+				return getSource("tmx14.dtd");
 			}
 			if (publicId.equals("http://www.lisa.org/tmx")) {
-				URL url = TMXResolver.class.getResource("tmx13.dtd");
-				return new InputSource(url.openStream());
+				return getSource("tmx13.dtd");
 			}
 		}
 		if (systemId != null) {
 			if (systemId.toLowerCase().endsWith("tmx14.dtd")) {
-				URL url = TMXResolver.class.getResource("tmx14.dtd");
-				return new InputSource(url.openStream());
+				return getSource("tmx14.dtd");
 			}
 			if (systemId.toLowerCase().endsWith("tmx13.dtd")) {
-				URL url = TMXResolver.class.getResource("tmx13.dtd");
-				return new InputSource(url.openStream());
+				return getSource("tmx13.dtd");
 			}
 			if (systemId.toLowerCase().endsWith("tmx12.dtd")) {
-				URL url = TMXResolver.class.getResource("tmx12.dtd");
-				return new InputSource(url.openStream());
+				return getSource("tmx12.dtd");
 			}
 			if (systemId.toLowerCase().endsWith("tmx11.dtd")) {
-				URL url = TMXResolver.class.getResource("tmx11.dtd");
-				return new InputSource(url.openStream());
+				return getSource("tmx11.dtd");
 			}
 		}
 		return null;
 	}
 
+	private static InputSource getSource(String name) throws IOException {
+		ValidationEvents.DtdResolution event = new ValidationEvents.DtdResolution();
+		event.begin();
+		boolean cached = DTDS.containsKey(name);
+		try {
+			byte[] data = DTDS.computeIfAbsent(name, key -> {
+				try (InputStream in = TMXResolver.class.getResourceAsStream(key)) {
+					return in.readAllBytes();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			event.end();
+			if (event.shouldCommit()) {
+				event.systemId = name;
+				event.bytes = data.length;
+				event.cached = cached;
+				event.commit();
+			}
+			return new InputSource(new ByteArrayInputStream(data));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
 }
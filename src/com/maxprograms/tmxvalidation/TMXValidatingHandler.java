@@ -14,57 +14,269 @@ package com.maxprograms.tmxvalidation;
 import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.text.MessageFormat;
-import java.util.Enumeration;
-import java.util.HashSet;
-import java.util.Hashtable;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Set;
-import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
-import com.maxprograms.languages.Language;
-import com.maxprograms.languages.LanguageUtils;
-import com.maxprograms.xml.Attribute;
 import com.maxprograms.xml.Catalog;
 import com.maxprograms.xml.Document;
-import com.maxprograms.xml.Element;
 import com.maxprograms.xml.IContentHandler;
 
 public class TMXValidatingHandler implements IContentHandler {
 
-	public static final String RELOAD = Messages.getString("TMXValidatingHandler.0");
-	private Element current;
-	Stack<Element> stack;
-	Map<String, Set<String>> xMap;
-	private boolean inCDATA = false;
-	private String srcLang;
-	private Element root;
+	public static final String CANCELLED = Messages.getString("TMXValidatingHandler.24");
+	public static final String TIMED_OUT = Messages.getString("TMXValidatingHandler.25");
 
 	private static final Logger LOGGER = System.getLogger(TMXValidatingHandler.class.getName());
 
-	private Hashtable<String, String> ids;
-	private int balance;
+	private static final int OTHER = 0;
+	private static final int TMX = 1;
+	private static final int HEADER = 2;
+	private static final int TU = 3;
+	private static final int TUV = 4;
+	private static final int SEG = 5;
+	private static final int BPT = 6;
+	private static final int EPT = 7;
+	private static final int IT = 8;
+	private static final int PH = 9;
+	private static final int HI = 10;
+
+	private static final long FNV_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final int START_MARK = 0x10000;
+	private static final int END_MARK = 0x20000;
+
+	private boolean rootFound;
+	private boolean fragment;
+	private long firstTu;
+	private String srcLang;
 	private String version;
 	private String publicId;
 	private String systemId;
-	private String currentLang;
+
+	// element codes of the open elements
+	private int[] stack;
+	private int depth;
+
+	// state of the current <tu>
+	private int tuvCount;
+	private int tuvsWithX;
+	private boolean srcLangFound;
+	private boolean xMismatch;
+	private LongIntMap xReference;
+	private LongIntMap xCurrent;
+
+	// state of the current <seg>
+	private boolean inSeg;
+	private int balance;
+	private LongIntMap ids;
+
+	private Locator locator;
+	private long tuCount;
+	private int maxErrors;
+	private boolean stopped;
+	private List<ValidationError> errors;
+
+	// checked at <tu> boundaries, set from other threads
+	private volatile boolean cancelled;
+	private long deadline;
+
+	// what to check, set from a ValidationLevel and the checks left out
+	private boolean structure = true;
+	private boolean checkDates = true;
+	private boolean checkLanguages = true;
+	private boolean checkSource = true;
+	private boolean checkUsage = true;
+	private boolean checkPairing = true;
+	private boolean checkXAttributes = true;
+
+	// optional duplicate checks, running hashes of the current <tu> and <tuv>
+	private FingerprintSet tuPrints;
+	private FingerprintSet tuidPrints;
+	private FingerprintLog printLog;
+	private long tuHash;
+	private long tuvHash;
+
+	// only checked for being enabled, a Flight Recorder event is created when a recording wants it
+	private static final ValidationEvents.SlowTu TU_PROBE = new ValidationEvents.SlowTu();
+	private static final ValidationEvents.LanguageCheck LANGUAGE_PROBE = new ValidationEvents.LanguageCheck();
+	private ValidationEvents.SlowTu tuEvent;
 
 	public TMXValidatingHandler() {
-		stack = new Stack<>();
+		stack = new int[16];
+		xReference = new LongIntMap();
+		xCurrent = new LongIntMap();
+		ids = new LongIntMap();
+		errors = new ArrayList<>();
+	}
+
+	public void reset() {
+		// back to the state of a new handler: no fragment, no limits, no errors from the last document
+		fragment = false;
+		firstTu = 0;
+		srcLang = null;
+		version = null;
+		publicId = null;
+		systemId = null;
+		rootFound = false;
+		depth = 0;
+		inSeg = false;
+		tuCount = 0;
+		stopped = false;
+		maxErrors = 0;
+		deadline = 0;
+		cancelled = false;
+		tuEvent = null;
+		tuPrints = null;
+		tuidPrints = null;
+		printLog = null;
+		setLevel(ValidationLevel.FULL, Set.of());
+		xReference.clear();
+		xCurrent.clear();
+		ids.clear();
+		errors = new ArrayList<>();
+	}
+
+	public void setLevel(ValidationLevel level, Set<ValidationCheck> skipped) {
+		boolean full = level == ValidationLevel.FULL;
+		structure = level != ValidationLevel.WELL_FORMED;
+		checkDates = full && !skipped.contains(ValidationCheck.DATES);
+		checkLanguages = full && !skipped.contains(ValidationCheck.LANGUAGES);
+		checkSource = full && !skipped.contains(ValidationCheck.SOURCE_LANGUAGE);
+		checkUsage = full && !skipped.contains(ValidationCheck.USAGE_COUNT);
+		checkPairing = full && !skipped.contains(ValidationCheck.PAIRING);
+		checkXAttributes = full && !skipped.contains(ValidationCheck.X_ATTRIBUTES);
+	}
+
+	public void setDuplicates(FingerprintSet tus, FingerprintSet tuids) {
+		setDuplicates(tus, tuids, null);
+	}
+
+	public void setDuplicates(FingerprintSet tus, FingerprintSet tuids, FingerprintLog log) {
+		// null sets turn the checks off; the caller owns the sets. A chunk of a larger file logs the fingerprints
+		// that are new to its sets, the caller checks them against the chunks before it
+		tuPrints = tus;
+		tuidPrints = tuids;
+		printLog = log;
+	}
+
+	public void setMaxErrors(int maxErrors) {
+		// 0 stops at the first error, any other value collects up to that number of errors
+		this.maxErrors = maxErrors;
+	}
+
+	public void cancel() {
+		cancelled = true;
+	}
+
+	void clearCancel() {
+		cancelled = false;
+	}
+
+	public void setDeadline(long nanoTime) {
+		// 0 means no deadline
+		deadline = nanoTime;
+	}
+
+	public int getMaxErrors() {
+		return maxErrors;
+	}
+
+	public List<ValidationError> getErrors() {
+		return errors;
+	}
+
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	public long getTuCount() {
+		return tuCount;
+	}
+
+	private void error(String key, Object... args) throws SAXException {
+		ValidationError e = new ValidationError(getLine(), getColumn(), tuCount, key, args);
+		errors.add(e);
+		if (maxErrors == 0) {
+			stopped = true;
+			throw new SAXException(e.getMessage());
+		}
+		if (errors.size() >= maxErrors) {
+			stopped = true;
+			throw new SAXException(Messages.getString("TMXValidatingHandler.23"));
+		}
+	}
+
+	private void fatal(String key, Object... args) throws SAXException {
+		ValidationError e = new ValidationError(getLine(), getColumn(), tuCount, key, args);
+		errors.add(e);
+		stopped = true;
+		throw new SAXException(e.getMessage());
+	}
+
+	public void addError(SAXParseException exception) throws SAXException {
+		if (stopped) {
+			return;
+		}
+		errors.add(new ValidationError(exception.getLineNumber(), exception.getColumnNumber(), tuCount,
+				ValidationError.PARSER_ERROR, exception.getMessage()));
+		if (maxErrors == 0 || errors.size() >= maxErrors) {
+			stopped = true;
+			throw new SAXException(exception.getMessage());
+		}
+	}
+
+	public void addError(SAXException exception) {
+		if (stopped) {
+			return;
+		}
+		stopped = true;
+		if (exception instanceof SAXParseException pe) {
+			errors.add(new ValidationError(pe.getLineNumber(), pe.getColumnNumber(), tuCount,
+					ValidationError.PARSER_ERROR, pe.getMessage()));
+		} else {
+			errors.add(new ValidationError(getLine(), getColumn(), tuCount, ValidationError.PARSER_ERROR,
+					exception.getMessage()));
+		}
+	}
+
+	public void setFragment(String tmxVersion, String sourceLanguage, long tusBefore) {
+		// validate a run of <tu> elements wrapped in <body>, using the state read from a previous <header>
+		fragment = true;
+		version = tmxVersion;
+		srcLang = sourceLanguage;
+		firstTu = tusBefore;
+	}
+
+	public String getSrcLang() {
+		return srcLang;
+	}
+
+	private int getLine() {
+		return locator != null ? locator.getLineNumber() : -1;
+	}
+
+	private int getColumn() {
+		return locator != null ? locator.getColumnNumber() : -1;
 	}
 
 	@Override
 	public void startDTD(String name, String publicId1, String systemId1) throws SAXException {
 		this.publicId = publicId1;
 		this.systemId = systemId1;
+		if (structure && publicId1 == null && systemId1 == null) {
+			// a second DOCTYPE cannot be added, report it before the parser complains about every element
+			fatal("TMXValidatingHandler.29");
+		}
 	}
 
 	@Override
@@ -84,12 +296,12 @@ public class TMXValidatingHandler implements IContentHandler {
 
 	@Override
 	public void startCDATA() throws SAXException {
-		inCDATA = true;
+		// do nothing
 	}
 
 	@Override
 	public void endCDATA() throws SAXException {
-		inCDATA = false;
+		// do nothing
 	}
 
 	@Override
@@ -99,17 +311,28 @@ public class TMXValidatingHandler implements IContentHandler {
 
 	@Override
 	public void setDocumentLocator(Locator locator) {
-		// do nothing
+		this.locator = locator;
 	}
 
 	@Override
 	public void startDocument() throws SAXException {
-		// do nothing
+		rootFound = fragment;
+		if (!fragment) {
+			srcLang = null;
+			version = null;
+		}
+		publicId = null;
+		systemId = null;
+		depth = 0;
+		inSeg = false;
+		errors = new ArrayList<>();
+		tuCount = fragment ? firstTu : 0;
+		stopped = false;
 	}
 
 	@Override
 	public void endDocument() throws SAXException {
-		stack.clear();
+		depth = 0;
 	}
 
 	@Override
@@ -122,84 +345,267 @@ public class TMXValidatingHandler implements IContentHandler {
 		// do nothing
 	}
 
+	private static int getCode(String name) {
+		return switch (name) {
+			case "tmx" -> TMX;
+			case "header" -> HEADER;
+			case "tu" -> TU;
+			case "tuv" -> TUV;
+			case "seg" -> SEG;
+			case "bpt" -> BPT;
+			case "ept" -> EPT;
+			case "it" -> IT;
+			case "ph" -> PH;
+			case "hi" -> HI;
+			default -> OTHER;
+		};
+	}
+
+	private void push(int code) {
+		if (depth == stack.length) {
+			stack = Arrays.copyOf(stack, depth * 2);
+		}
+		stack[depth++] = code;
+	}
+
 	@Override
 	public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
-		if (current == null) {
-			current = new Element(qName);
-			stack.push(current);
-		} else {
-			Element child = new Element(qName);
-			current.addContent(child);
-			stack.push(current);
-			current = child;
-		}
-		for (int i = 0; i < atts.getLength(); i++) {
-			current.setAttribute(atts.getQName(i), atts.getValue(i));
-		}
-		if (root == null) {
-			if (qName.equals("tmx")) {
-				root = current;
-				version = root.getAttributeValue("version");
+		int code = getCode(qName);
+		push(code);
+		if (!rootFound && !structure) {
+			// only the parser looks at the document, <tu> elements are still counted
+			rootFound = true;
+		} else if (!rootFound) {
+			rootFound = true;
+			if (code == TMX) {
+				version = getValue(atts, "version");
 				if (version.isEmpty()) {
-					throw new SAXException(Messages.getString("TMXValidatingHandler.1"));
+					fatal("TMXValidatingHandler.1");
 				}
 				if (!(version.equals("1.1") || version.equals("1.2") || version.equals("1.3")
 						|| version.equals("1.4"))) {
-					MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.2"));
-					throw new SAXException(mf.format(new Object[] { version }));
+					fatal("TMXValidatingHandler.2", version);
 				}
 				if (systemId == null && publicId == null) {
-					throw new SAXException(RELOAD);
+					// TMXProlog adds a DOCTYPE when there is none, only one without identifiers gets here
+					fatal("TMXValidatingHandler.0");
 				}
 			} else {
-				throw new SAXException(Messages.getString("TMXValidatingHandler.3"));
+				fatal("TMXValidatingHandler.3");
 			}
 		}
-		if (qName.equals("header")) {
-			srcLang = current.getAttributeValue("srclang");
-			if (srcLang.isEmpty()) {
-				throw new SAXException(Messages.getString("TMXValidatingHandler.4"));
+		if (code == TU) {
+			checkInterrupted();
+			startTu();
+		}
+		if (!structure) {
+			return;
+		}
+		if (tuPrints != null) {
+			startPrint(code, qName, atts);
+		}
+		switch (code) {
+			case HEADER -> startHeader(atts);
+			case TUV -> startTuv(atts);
+			case SEG -> startSeg();
+			case BPT -> {
+				if (checkXAttributes) {
+					checkX(atts, 1);
+				}
+				if (inSeg && checkPairing) {
+					balance++;
+					if (version.equals("1.4")) {
+						checkBptId(getValue(atts, "i"));
+					}
+				}
 			}
-			if (!srcLang.equals("*all*")) {
-				try {
-					if (!checkLang(srcLang)) {
-						MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.5"));
-						throw new SAXException(mf.format(new Object[] { srcLang }));
+			case EPT -> {
+				if (inSeg && checkPairing) {
+					balance--;
+					if (version.equals("1.4")) {
+						checkEptId(getValue(atts, "i"));
 					}
-				} catch (IOException | ParserConfigurationException e) {
-					LOGGER.log(Level.ERROR, Messages.getString("TMXValidatingHandler.6"), e);
-					throw new SAXException(Messages.getString("TMXValidatingHandler.6"));
 				}
 			}
+			case IT, PH, HI -> {
+				if (checkXAttributes) {
+					checkX(atts, code == IT ? 2 : code == PH ? 4 : 8);
+				}
+			}
+			default -> {
+				// nothing else to check
+			}
 		}
-		if ("tu".equals(qName)) {
-			xMap = new Hashtable<>();
-		}
-		if ("tuv".equals(qName)) {
-			currentLang = current.hasAttribute("xml:lang") ? current.getAttributeValue("xml:lang")
-					: current.getAttributeValue("lang");
+		if (checkLanguages || checkUsage || checkDates) {
+			checkAttributes(atts);
 		}
-		if (current.hasAttribute("x")
-				&& ("bpt".equals(qName) || "it".equals(qName) || "ph".equals(qName) || "hi".equals(qName))) {
-			String x = current.getAttributeValue("x");
-			if (!isNumber(x)) {
-				MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.7"));
-				throw new SAXException(mf.format(new Object[] { x }));
+	}
+
+	private static String getValue(Attributes atts, String name) {
+		String value = atts.getValue(name);
+		return value != null ? value : "";
+	}
+
+	private void checkAttributes(Attributes atts) throws SAXException {
+		for (int i = 0; i < atts.getLength(); i++) {
+			String name = atts.getQName(i);
+			String value = atts.getValue(i);
+			if (checkLanguages && (name.equals("lang") || name.equals("adminlang") || name.equals("xml:lang"))) {
+				try {
+					if (!checkLang(value)) {
+						error("TMXValidatingHandler.9", value);
+					}
+				} catch (IOException | ParserConfigurationException e) {
+					LOGGER.log(Level.ERROR, Messages.getString("TMXValidatingHandler.10"), e);
+					fatal("TMXValidatingHandler.10");
+				}
 			}
-			Set<String> set = xMap.get(currentLang);
-			if (set == null) {
-				set = new HashSet<>();
-				xMap.put(currentLang, set);
+			if (checkUsage && name.equals("usagecount") && !isNumber(value)) {
+				error("TMXValidatingHandler.11", value);
 			}
-			if (set.contains(qName + x)) {
-				MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.8"));
-				throw new SAXException(mf.format(new Object[] { x, qName }));
+			if (checkDates && (name.equals("lastusagedate") || name.equals("changedate") || name.equals("creationdate"))
+					&& !checkDate(value)) {
+				error("TMXValidatingHandler.12", value);
 			}
-			set.add(qName + x);
 		}
 	}
 
-	private boolean isNumber(String s) {
+	private void startHeader(Attributes atts) throws SAXException {
+		srcLang = getValue(atts, "srclang");
+		if (srcLang.isEmpty()) {
+			fatal("TMXValidatingHandler.4");
+		}
+		if (checkLanguages && !"*all*".equals(srcLang)) {
+			try {
+				// also warms the shared language cache for the <tuv> elements that follow
+				if (!checkLang(srcLang)) {
+					error("TMXValidatingHandler.5", srcLang);
+				}
+			} catch (IOException | ParserConfigurationException e) {
+				LOGGER.log(Level.ERROR, Messages.getString("TMXValidatingHandler.6"), e);
+				fatal("TMXValidatingHandler.6");
+			}
+		}
+	}
+
+	private void checkInterrupted() throws SAXException {
+		if (cancelled) {
+			stopped = true;
+			throw new SAXException(CANCELLED);
+		}
+		if (deadline != 0 && System.nanoTime() - deadline > 0) {
+			stopped = true;
+			throw new SAXException(TIMED_OUT);
+		}
+	}
+
+	private void startTu() {
+		tuCount++;
+		if (TU_PROBE.isEnabled()) {
+			tuEvent = new ValidationEvents.SlowTu();
+			tuEvent.begin();
+		}
+		tuvCount = 0;
+		tuvsWithX = 0;
+		srcLangFound = false;
+		xMismatch = false;
+		xReference.clear();
+		xCurrent.clear();
+	}
+
+	private void startTuv(Attributes atts) throws SAXException {
+		tuvCount++;
+		xCurrent.clear();
+		if (!checkingSource()) {
+			return;
+		}
+		String lang = getValue(atts, "xml:lang");
+		if (lang.isEmpty() && (version.equals("1.1") || version.equals("1.2"))) {
+			lang = getValue(atts, "lang");
+		}
+		if (lang.isEmpty()) {
+			error("TMXValidatingHandler.17");
+		}
+		if (lang.equals(srcLang)) {
+			srcLangFound = true;
+		}
+	}
+
+	private boolean checkingSource() {
+		// without a <header> there is no source language to look for, the parser reports the missing element
+		return checkSource && srcLang != null && !srcLang.equals("*all*");
+	}
+
+	private void startSeg() {
+		inSeg = true;
+		balance = 0;
+		ids.clear();
+	}
+
+	private void checkX(Attributes atts, int kind) throws SAXException {
+		String x = atts.getValue("x");
+		if (x == null) {
+			return;
+		}
+		if (!isNumber(x)) {
+			error("TMXValidatingHandler.7", x);
+			return;
+		}
+		long key = numberKey(x);
+		int kinds = xCurrent.get(key, 0);
+		if ((kinds & kind) != 0) {
+			error("TMXValidatingHandler.8", x, getName(kind));
+		}
+		xCurrent.put(key, kinds | kind);
+	}
+
+	private static String getName(int kind) {
+		return switch (kind) {
+			case 1 -> "bpt";
+			case 2 -> "it";
+			case 4 -> "ph";
+			default -> "hi";
+		};
+	}
+
+	private void checkBptId(String s) throws SAXException {
+		if (!isNumber(s)) {
+			error("TMXValidatingHandler.19");
+			return;
+		}
+		long key = numberKey(s);
+		int state = ids.get(key, 2);
+		if (state == 2) {
+			ids.put(key, 1);
+		} else if (state == -1) {
+			ids.put(key, 0);
+		} else {
+			error("TMXValidatingHandler.20");
+		}
+	}
+
+	private void checkEptId(String s) throws SAXException {
+		if (!isNumber(s)) {
+			error("TMXValidatingHandler.21");
+			return;
+		}
+		long key = numberKey(s);
+		int state = ids.get(key, 2);
+		if (state == 2) {
+			ids.put(key, -1);
+		} else if (state == 1) {
+			ids.put(key, 0);
+		} else {
+			error("TMXValidatingHandler.22");
+		}
+	}
+
+	private static long numberKey(String s) {
+		// values match as strings, as in TMX: "1", "01" and "1.0" are different ids
+		return FingerprintSet.mix(hash(FNV_BASIS, s));
+	}
+
+	static boolean isNumber(String s) {
 		try {
 			Double.parseDouble(s);
 			return true;
@@ -210,109 +616,162 @@ public class TMXValidatingHandler implements IContentHandler {
 
 	@Override
 	public void endElement(String uri, String localName, String qName) throws SAXException {
-		if (current == null) {
+		if (depth == 0) {
 			return;
 		}
-		List<Attribute> attributes = current.getAttributes();
-		Iterator<Attribute> i = attributes.iterator();
-		while (i.hasNext()) {
-			Attribute a = i.next();
-			String name = a.getName();
-			String value = a.getValue();
-			if (name.equals("lang") || name.equals("adminlang") || name.equals("xml:lang")) {
-				try {
-					if (!checkLang(value)) {
-						MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.9"));
-						throw new SAXException(mf.format(new Object[] { value }));
-					}
-				} catch (IOException | ParserConfigurationException e) {
-					LOGGER.log(Level.ERROR, Messages.getString("TMXValidatingHandler.10"), e);
-					throw new SAXException(Messages.getString("TMXValidatingHandler.10"));
-				}
-			}
-			if (name.equals("usagecount") && !isNumber(value)) {
-				MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.11"));
-				throw new SAXException(mf.format(new Object[] { value }));
-			}
-			if ((name.equals("lastusagedate") || name.equals("changedate") || name.equals("creationdate"))
-					&& !checkDate(value)) {
-				MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.12"));
-				throw new SAXException(mf.format(new Object[] { value }));
+		int code = stack[--depth];
+		if (!structure) {
+			if (code == TU && tuEvent != null) {
+				commitTuEvent();
 			}
+			return;
+		}
+		if (tuPrints != null) {
+			endPrint(code, qName);
 		}
-		if (current.getName().equals("seg")) {
-			balance = 0;
-			ids = null;
-			ids = new Hashtable<>();
-			recurse(current);
-			if (balance != 0) {
-				MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.13"));
-				throw new SAXException(mf.format(new String[] { current.toString() }));
+		switch (code) {
+			case SEG -> endSeg();
+			case TUV -> endTuv();
+			case TU -> endTu();
+			default -> {
+				// nothing to check
 			}
-			if (ids.size() > 0) {
-				Enumeration<String> en = ids.keys();
-				while (en.hasMoreElements()) {
-					if (!ids.get(en.nextElement()).equals("0")) {
-						MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.14"));
-						throw new SAXException(mf.format(new String[] { current.toString() }));
+		}
+	}
+
+	private void startPrint(int code, String qName, Attributes atts) throws SAXException {
+		// a <tu> is identified by the languages and segments of its <tuv> elements, in any order
+		switch (code) {
+			case TU -> {
+				tuHash = 0;
+				String tuid = atts.getValue("tuid");
+				if (tuid != null) {
+					long print = FingerprintSet.mix(hash(FNV_BASIS, tuid));
+					if (!addPrint(tuidPrints, print)) {
+						error("TMXValidatingHandler.27", tuid);
+					} else if (printLog != null) {
+						logPrint(print, tuid);
 					}
 				}
 			}
-		}
-		if (localName.equals("tu")) {
-			if (!srcLang.equals("*all*")) {
-				checkLanguageVariants(current);
-			}
-			Set<String> xKeys = xMap.keySet();
-			if (!xKeys.isEmpty()) {
-				if (current.getChildren("tuv").size() != xKeys.size()) {
-					throw new SAXException(Messages.getString("TMXValidatingHandler.15"));
+			case TUV -> {
+				String lang = getValue(atts, "xml:lang");
+				if (lang.isEmpty()) {
+					lang = getValue(atts, "lang");
 				}
-				Set<String> xValues = xMap.get(currentLang);
-				Iterator<String> it = xKeys.iterator();
-				while (it.hasNext()) {
-					String key = it.next();
-					Set<String> langSet = xMap.get(key);
-					if (langSet.size() != xValues.size() || !langSet.containsAll(xValues)) {
-						throw new SAXException(Messages.getString("TMXValidatingHandler.16"));
-					}
+				tuvHash = hash(FNV_BASIS, lang.toLowerCase(Locale.ROOT));
+			}
+			default -> {
+				if (inSeg) {
+					tuvHash = hash(hash(tuvHash, START_MARK), qName);
 				}
 			}
-			current = null;
-			stack.clear();
-		}
-		if (!stack.isEmpty()) {
-			current = stack.pop();
 		}
 	}
 
-	private void checkLanguageVariants(Element tu) throws SAXException {
-		List<Element> variants = tu.getChildren("tuv");
-		Iterator<Element> it = variants.iterator();
-		boolean found = false;
-		while (it.hasNext() && !found) {
-			Element tuv = it.next();
-			String lang = tuv.getAttributeValue("xml:lang");
-			if (lang.isEmpty() && (version.equals("1.1") || version.equals("1.2"))) {
-				lang = tuv.getAttributeValue("lang");
-			}
-			if (lang.isEmpty()) {
-				throw new SAXException(Messages.getString("TMXValidatingHandler.17"));
+	private void endPrint(int code, String qName) throws SAXException {
+		switch (code) {
+			case TUV -> tuHash += FingerprintSet.mix(tuvHash);
+			case TU -> {
+				long print = FingerprintSet.mix(tuHash ^ tuvCount);
+				if (!addPrint(tuPrints, print)) {
+					error("TMXValidatingHandler.26");
+				} else if (printLog != null) {
+					logPrint(print, null);
+				}
 			}
-			if (lang.equals(srcLang)) {
-				found = true;
+			default -> {
+				if (inSeg && code != SEG) {
+					tuvHash = hash(hash(tuvHash, END_MARK), qName);
+				}
 			}
 		}
-		if (!found) {
-			MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.18"));
-			throw new SAXException(mf.format(new Object[] { srcLang }));
+	}
+
+	private boolean addPrint(FingerprintSet prints, long fingerprint) throws SAXException {
+		try {
+			return prints.add(fingerprint);
+		} catch (IOException e) {
+			LOGGER.log(Level.ERROR, Messages.getString("TMXValidatingHandler.28"), e);
+			fatal("TMXValidatingHandler.28");
+			return false;
+		}
+	}
+
+	private void logPrint(long fingerprint, String tuid) throws SAXException {
+		try {
+			printLog.add(fingerprint, getLine(), getColumn(), tuCount, tuid);
+		} catch (IOException e) {
+			LOGGER.log(Level.ERROR, Messages.getString("TMXValidatingHandler.28"), e);
+			fatal("TMXValidatingHandler.28");
+		}
+	}
+
+	private static long hash(long h, int c) {
+		// FNV-1a over UTF-16 units, markers are above the char range
+		return (h ^ c) * FNV_PRIME;
+	}
+
+	private static long hash(long h, String s) {
+		for (int i = 0; i < s.length(); i++) {
+			h = hash(h, s.charAt(i));
+		}
+		return h;
+	}
+
+	private void endSeg() throws SAXException {
+		inSeg = false;
+		if (!checkPairing) {
+			return;
+		}
+		if (balance != 0) {
+			error("TMXValidatingHandler.13");
+		}
+		if (!ids.isEmpty() && !ids.allValuesEqual(0)) {
+			error("TMXValidatingHandler.14");
+		}
+	}
+
+	private void endTuv() {
+		if (!checkXAttributes || xCurrent.isEmpty()) {
+			return;
+		}
+		tuvsWithX++;
+		if (tuvsWithX == 1) {
+			LongIntMap swap = xReference;
+			xReference = xCurrent;
+			xCurrent = swap;
+		} else if (!xCurrent.sameEntries(xReference)) {
+			xMismatch = true;
+		}
+		xCurrent.clear();
+	}
+
+	private void endTu() throws SAXException {
+		if (tuEvent != null) {
+			commitTuEvent();
+		}
+		if (checkingSource() && !srcLangFound) {
+			error("TMXValidatingHandler.18", srcLang);
+		}
+		if (tuvsWithX > 0) {
+			if (tuvsWithX != tuvCount) {
+				error("TMXValidatingHandler.15");
+			} else if (xMismatch) {
+				error("TMXValidatingHandler.16");
+			}
 		}
 	}
 
 	@Override
 	public void characters(char[] ch, int start, int length) throws SAXException {
-		if (!inCDATA && current != null) {
-			current.addContent(new String(ch, start, length));
+		// text is only needed to tell duplicate <tu> elements apart
+		if (inSeg && tuPrints != null) {
+			long h = tuvHash;
+			for (int i = start; i < start + length; i++) {
+				h = hash(h, ch[i]);
+			}
+			tuvHash = h;
 		}
 	}
 
@@ -331,19 +790,39 @@ public class TMXValidatingHandler implements IContentHandler {
 		// do nothing
 	}
 
+	private void commitTuEvent() {
+		// checks done at the end of the <tu> are not included, errors there stop or are cheap
+		ValidationEvents.SlowTu event = tuEvent;
+		tuEvent = null;
+		event.end();
+		if (event.shouldCommit()) {
+			event.file = locator != null ? locator.getSystemId() : null;
+			event.tu = tuCount;
+			event.line = getLine();
+			event.column = getColumn();
+			event.commit();
+		}
+	}
+
 	private boolean checkLang(String lang) throws IOException, SAXException, ParserConfigurationException {
-		if (lang.startsWith("x-") || lang.startsWith("X-")) {
-			// custom language code
-			return true;
+		if (!LANGUAGE_PROBE.isEnabled()) {
+			return LanguageCache.check(lang) != LanguageCache.Result.INVALID;
 		}
-		Language language = LanguageUtils.getLanguage(lang);
-		if (language == null) {
-			return false;
+		ValidationEvents.LanguageCheck event = new ValidationEvents.LanguageCheck();
+		event.begin();
+		boolean valid = LanguageCache.check(lang) != LanguageCache.Result.INVALID;
+		event.end();
+		if (event.shouldCommit()) {
+			event.file = locator != null ? locator.getSystemId() : null;
+			event.tu = tuCount;
+			event.language = lang;
+			event.valid = valid;
+			event.commit();
 		}
-		return language.getCode().equals(lang);
+		return valid;
 	}
 
-	private static boolean checkDate(String date) {
+	static boolean checkDate(String date) {
 		// YYYYMMDDThhmmssZ
 		if (date.length() != 16) {
 			return false;
@@ -420,55 +899,6 @@ public class TMXValidatingHandler implements IContentHandler {
 		return true;
 	}
 
-	private void recurse(Element element) throws SAXException {
-		List<Element> children = element.getChildren();
-		Iterator<Element> it = children.iterator();
-		while (it.hasNext()) {
-			Element e = it.next();
-			if (e.getName().equals("bpt")) {
-				balance += 1;
-				if (version.equals("1.4")) {
-					String s = e.getAttributeValue("i");
-					if (!isNumber(s)) {
-						MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.19"));
-						throw new SAXException( mf.format(new String[] { element.toString() }));
-					}
-					if (!ids.containsKey(s)) {
-						ids.put(s, "1");
-					} else {
-						if (ids.get(s).equals("-1")) {
-							ids.put(s, "0");
-						} else {
-							MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.20"));
-							throw new SAXException(mf.format(new String[] { element.toString() }));
-						}
-					}
-				}
-			}
-			if (e.getName().equals("ept")) {
-				balance -= 1;
-				if (version.equals("1.4")) {
-					String s = e.getAttributeValue("i");
-					if (!isNumber(s)) {
-						MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.21"));
-						throw new SAXException(mf.format(new String[] { element.toString() }));
-					}
-					if (!ids.containsKey(s)) {
-						ids.put(s, "-1");
-					} else {
-						if (ids.get(s).equals("1")) {
-							ids.put(s, "0");
-						} else {
-							MessageFormat mf = new MessageFormat(Messages.getString("TMXValidatingHandler.22"));
-							throw new SAXException(mf.format(new String[] { element.toString() }));
-						}
-					}
-				}
-			}
-			recurse(e);
-		}
-	}
-
 	@Override
 	public Document getDocument() {
 		return null;
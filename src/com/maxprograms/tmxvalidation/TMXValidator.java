@@ -11,84 +11,532 @@
  *******************************************************************************/ 
 package com.maxprograms.tmxvalidation;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 import com.maxprograms.xml.CustomErrorHandler;
-import com.maxprograms.xml.SAXBuilder;
 
 public class TMXValidator {
 
 	private static final Logger LOGGER = System.getLogger(TMXValidator.class.getName());
+	private static final SAXParserFactory FACTORY = SAXParserFactory.newInstance();
 	
-	private SAXBuilder builder;
+	private XMLReader reader;
 	private TMXValidatingHandler handler;
 	private TMXResolver resolver;
+	private ValidationProgress progress;
+	private long timeout;
+	private List<ValidationError> archiveErrors;
+	private boolean cached;
+	private ResultCache cache;
+	private ValidationLevel level = ValidationLevel.FULL;
+	private Set<ValidationCheck> skipped = EnumSet.noneOf(ValidationCheck.class);
+	private boolean duplicates;
 	
 	public TMXValidator() {
 		handler = new TMXValidatingHandler();
 		resolver = new TMXResolver();
-		builder = new SAXBuilder();
-		builder.setValidating(true);
-		builder.setContentHandler(handler);
-		builder.setEntityResolver(resolver);
-		builder.setErrorHandler(new CustomErrorHandler());
+	}
+
+	public void reset() {
+		// a validator can check any number of documents, one at a time; reset() also drops progress and timeout
+		handler.reset();
+		progress = null;
+		timeout = 0;
+		archiveErrors = null;
+		cached = false;
+		cache = null;
+		level = ValidationLevel.FULL;
+		skipped = EnumSet.noneOf(ValidationCheck.class);
+		duplicates = false;
+	}
+
+	public void setLevel(ValidationLevel level) {
+		this.level = level;
+	}
+
+	public void setSkipped(Set<ValidationCheck> skipped) {
+		// only used with ValidationLevel.FULL, lower levels run none of these checks
+		this.skipped = EnumSet.noneOf(ValidationCheck.class);
+		this.skipped.addAll(skipped);
+	}
+
+	public void setDuplicates(boolean duplicates) {
+		// report <tu> elements with the same content and repeated tuid values, not done at the WELL_FORMED level
+		this.duplicates = duplicates;
+	}
+
+	private ResultCache getCache() {
+		// cached results come from full validations without the optional checks
+		return level == ValidationLevel.FULL && skipped.isEmpty() && !duplicates ? cache : null;
+	}
+
+	public void setCache(ResultCache cache) {
+		// only files are looked up, streams are always validated
+		this.cache = cache;
+	}
+
+	public List<ValidationError> getErrors() {
+		// errors of the last validation; in fail-fast mode, the one that stopped it if the handler found it
+		return archiveErrors != null ? archiveErrors : handler.getErrors();
+	}
+
+	public boolean isCached() {
+		// the last validation was answered by the result cache, no file was read
+		return cached;
+	}
+
+	public long getTuCount() {
+		return handler.getTuCount();
+	}
+
+	public void setProgress(ValidationProgress progress) {
+		this.progress = progress;
+	}
+
+	public void setTimeout(long millis) {
+		// 0 lets the validation run to the end
+		timeout = millis;
+	}
+
+	public void cancel() {
+		handler.cancel();
 	}
 
 	public void validate(File file) throws IOException, SAXException, ParserConfigurationException {
+		handler.setMaxErrors(0);
+		ResultCache cache = getCache();
+		if (cache == null) {
+			parse(file, new CustomErrorHandler());
+			return;
+		}
+		ResultCache.CachedResult cached = cache.lookup(file);
+		if (cached != null) {
+			archiveErrors = new ArrayList<>();
+			this.cached = true;
+			if (!cached.isValid()) {
+				throw new SAXException(cached.getReason());
+			}
+			return;
+		}
+		long size = file.length();
+		long modified = file.lastModified();
+		MessageDigest digest = ResultCache.newDigest();
 		try {
-			builder.build(file);
-		} catch (SAXException sax) {
-			if (sax.getMessage().equals(TMXValidatingHandler.RELOAD)) {
-				// TMX DTD was not declared
-				String version = handler.getVersion();
-				File copy = File.createTempFile("copy", ".tmx");
-				copy.deleteOnExit();
-				copyFile(file, copy, version);
-				builder.build(copy);
-			} else {
-				throw sax;
+			parse(file, new CustomErrorHandler(), digest);
+		} catch (SAXException e) {
+			if (!isInterrupted(e)) {
+				cache.store(file, size, modified, ResultCache.format(digest), false, e.getMessage());
 			}
+			throw e;
+		}
+		cache.store(file, size, modified, ResultCache.format(digest), true, null);
+	}
+
+	public List<ValidationError> validate(File file, int maxErrors) throws IOException, ParserConfigurationException {
+		if (maxErrors < 1) {
+			throw new IllegalArgumentException(Messages.getString("TMXValidator.3"));
+		}
+		// the cache keeps one reason per file, only valid files skip a validation that collects errors
+		ResultCache cache = getCache();
+		if (cache != null) {
+			ResultCache.CachedResult cached = cache.lookup(file);
+			if (cached != null && cached.isValid()) {
+				archiveErrors = new ArrayList<>();
+				this.cached = true;
+				return archiveErrors;
+			}
+		}
+		long size = file.length();
+		long modified = file.lastModified();
+		MessageDigest digest = cache != null ? ResultCache.newDigest() : null;
+		handler.setMaxErrors(maxErrors);
+		try {
+			parse(file, new TMXErrorHandler(handler), digest);
+		} catch (SAXException e) {
+			handler.addError(e);
+		}
+		List<ValidationError> errors = archiveErrors != null ? archiveErrors : handler.getErrors();
+		if (cache != null && errors.isEmpty()) {
+			cache.store(file, size, modified, ResultCache.format(digest), true, null);
+		}
+		return errors;
+	}
+
+	private static boolean isInterrupted(SAXException e) {
+		// archives add the entry name in front of the message
+		String message = String.valueOf(e.getMessage());
+		return message.endsWith(TMXValidatingHandler.CANCELLED) || message.endsWith(TMXValidatingHandler.TIMED_OUT);
+	}
+
+	public void validate(InputStream in, String systemId)
+			throws IOException, SAXException, ParserConfigurationException {
+		handler.setMaxErrors(0);
+		parse(in, systemId, -1, new CustomErrorHandler());
+	}
+
+	public List<ValidationError> validate(InputStream in, String systemId, int maxErrors)
+			throws IOException, ParserConfigurationException {
+		return validate(in, systemId, -1, maxErrors);
+	}
+
+	public void validate(Path path) throws IOException, SAXException, ParserConfigurationException {
+		if (path.getFileSystem() == FileSystems.getDefault()) {
+			// files can be looked up in the result cache
+			validate(path.toFile());
+			return;
 		}
+		handler.setMaxErrors(0);
+		parse(path, new CustomErrorHandler());
 	}
 
-	private static void copyFile(File file, File copy, String version) throws IOException, SAXException, ParserConfigurationException {
-		String systemID = "tmx14.dtd";
-		if (version.equals("1.3")) {
-			systemID = "tmx13.dtd";
-		} else if (version.equals("1.2")) {
-			systemID = "tmx12.dtd";
-		} else if (version.equals("1.1")) {
-			systemID = "tmx11.dtd";
+	public List<ValidationError> validate(Path path, int maxErrors) throws IOException, ParserConfigurationException {
+		if (path.getFileSystem() == FileSystems.getDefault()) {
+			return validate(path.toFile(), maxErrors);
+		}
+		if (maxErrors < 1) {
+			throw new IllegalArgumentException(Messages.getString("TMXValidator.3"));
 		}
-		try (FileOutputStream out = new FileOutputStream(copy)) {
-			writeString(out, "<?xml version=\"1.0\" ?>\n");
-			writeString(out, "<!DOCTYPE tmx SYSTEM \"" + systemID + "\">\n");
-			SAXBuilder copyBuilder = new SAXBuilder();
-			TMXCopyHandler copyHandler = new TMXCopyHandler(out);
-			copyBuilder.setContentHandler(copyHandler);
-			copyBuilder.build(file);
+		handler.setMaxErrors(maxErrors);
+		try {
+			parse(path, new TMXErrorHandler(handler));
+		} catch (SAXException e) {
+			handler.addError(e);
 		}
+		return archiveErrors != null ? archiveErrors : handler.getErrors();
 	}
 
-	private static void writeString(FileOutputStream out, String string) throws IOException {
-		out.write(string.getBytes(StandardCharsets.UTF_8));
+	public void validate(byte[] data, String systemId) throws IOException, SAXException, ParserConfigurationException {
+		handler.setMaxErrors(0);
+		parse(new ByteArrayInputStream(data), systemId, data.length, new CustomErrorHandler());
+	}
+
+	public List<ValidationError> validate(byte[] data, String systemId, int maxErrors)
+			throws IOException, ParserConfigurationException {
+		return validate(new ByteArrayInputStream(data), systemId, data.length, maxErrors);
+	}
+
+	public void validate(ByteBuffer data, String systemId)
+			throws IOException, SAXException, ParserConfigurationException {
+		// the position of the buffer is not changed
+		handler.setMaxErrors(0);
+		parse(new ByteBufferInputStream(data), systemId, data.remaining(), new CustomErrorHandler());
+	}
+
+	public List<ValidationError> validate(ByteBuffer data, String systemId, int maxErrors)
+			throws IOException, ParserConfigurationException {
+		return validate(new ByteBufferInputStream(data), systemId, data.remaining(), maxErrors);
+	}
+
+	public void validate(Reader reader, String systemId)
+			throws IOException, SAXException, ParserConfigurationException {
+		handler.setMaxErrors(0);
+		parse(reader, systemId, new CustomErrorHandler());
+	}
+
+	public List<ValidationError> validate(Reader reader, String systemId, int maxErrors)
+			throws IOException, ParserConfigurationException {
+		if (maxErrors < 1) {
+			throw new IllegalArgumentException(Messages.getString("TMXValidator.3"));
+		}
+		handler.setMaxErrors(maxErrors);
+		try {
+			parse(reader, systemId, new TMXErrorHandler(handler));
+		} catch (SAXException e) {
+			handler.addError(e);
+		}
+		return handler.getErrors();
+	}
+
+	private List<ValidationError> validate(InputStream in, String systemId, long length, int maxErrors)
+			throws IOException, ParserConfigurationException {
+		if (maxErrors < 1) {
+			throw new IllegalArgumentException(Messages.getString("TMXValidator.3"));
+		}
+		handler.setMaxErrors(maxErrors);
+		try {
+			parse(in, systemId, length, new TMXErrorHandler(handler));
+		} catch (SAXException e) {
+			handler.addError(e);
+		}
+		return archiveErrors != null ? archiveErrors : handler.getErrors();
+	}
+
+	private void parse(Reader reader, String systemId, ErrorHandler errorHandler)
+			throws IOException, SAXException, ParserConfigurationException {
+		XMLReader parser = getReader();
+		parser.setErrorHandler(errorHandler);
+		handler.setDeadline(timeout > 0 ? System.nanoTime() + timeout * 1_000_000 : 0);
+		archiveErrors = null;
+		cached = false;
+		if (progress != null) {
+			// only characters are available, the number of <tu> elements is still reported
+			progress.start(-1, handler::getTuCount);
+		}
+		ValidationEvents.Parse event = new ValidationEvents.Parse();
+		event.begin();
+		try {
+			BufferedReader in = new BufferedReader(reader, 1 << 16);
+			ValidationEvents.Prolog prologEvent = new ValidationEvents.Prolog();
+			prologEvent.begin();
+			TMXProlog prolog = TMXProlog.read(in);
+			commit(prologEvent, prolog, systemId);
+			parse(parser, prolog.getInputSource(in, systemId));
+		} finally {
+			handler.clearCancel();
+			commit(event, systemId, -1);
+		}
+	}
+
+	private void commit(ValidationEvents.Parse event, String systemId, long length) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.file = systemId;
+			event.bytes = length;
+			event.tus = handler.getTuCount();
+			event.errors = getErrors().size();
+			event.commit();
+		}
+	}
+
+	private static void commit(ValidationEvents.Prolog event, TMXProlog prolog, String systemId) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.file = systemId;
+			event.encoding = prolog.getCharset() != null ? prolog.getCharset().name() : null;
+			event.root = prolog.getRoot();
+			event.doctype = prolog.hasDoctype();
+			event.commit();
+		}
+	}
+
+	private void parse(File file, ErrorHandler errorHandler)
+			throws IOException, SAXException, ParserConfigurationException {
+		parse(file, errorHandler, null);
+	}
+
+	private void parse(Path path, ErrorHandler errorHandler)
+			throws IOException, SAXException, ParserConfigurationException {
+		// paths of other file systems, such as the entries of a zip file system, have no File
+		String systemId = path.toUri().toString();
+		long length = Files.size(path);
+		try (InputStream in = Files.newInputStream(path)) {
+			parse(in, systemId, length, errorHandler);
+		}
+	}
+
+	private void parse(File file, ErrorHandler errorHandler, MessageDigest digest)
+			throws IOException, SAXException, ParserConfigurationException {
+		// with a digest, the bytes read by the parser are hashed for the cache instead of reading the file again
+		String systemId = file.toURI().toString();
+		if (digest == null) {
+			try (InputStream in = new FileInputStream(file)) {
+				parse(in, systemId, file.length(), errorHandler);
+			}
+			return;
+		}
+		try (InputStream in = new DigestInputStream(new FileInputStream(file), digest)) {
+			InputStream shielded = new FilterInputStream(in) {
+				@Override
+				public void close() {
+					// the parser must not close the file, the bytes it did not need are hashed next
+				}
+			};
+			try {
+				parse(shielded, systemId, file.length(), errorHandler);
+			} catch (SAXException e) {
+				if (!isInterrupted(e)) {
+					in.transferTo(OutputStream.nullOutputStream());
+				}
+				throw e;
+			}
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+	}
+
+	private void parse(InputStream stream, String systemId, long length, ErrorHandler errorHandler)
+			throws IOException, SAXException, ParserConfigurationException {
+		// reads the input once, only the prolog is looked at in advance
+		XMLReader parser = getReader();
+		parser.setErrorHandler(errorHandler);
+		handler.setDeadline(timeout > 0 ? System.nanoTime() + timeout * 1_000_000 : 0);
+		archiveErrors = null;
+		cached = false;
+		InputStream counted = stream;
+		if (progress != null) {
+			// compressed bytes are counted, they are the ones that add up to the file length
+			progress.start(length, handler::getTuCount);
+			counted = new CountingInputStream(stream, progress);
+		}
+		ValidationEvents.Parse event = new ValidationEvents.Parse();
+		event.begin();
+		try {
+			BufferedInputStream in = new BufferedInputStream(counted, 1 << 16);
+			switch (Compression.detect(in)) {
+				case GZIP -> parseDocument(parser, new BufferedInputStream(new GZIPInputStream(in, 1 << 16)),
+						systemId);
+				case ZIP -> parseArchive(parser, new ZipInputStream(in), systemId);
+				default -> parseDocument(parser, in, systemId);
+			}
+		} finally {
+			// a cancel request applies to one validation only
+			handler.clearCancel();
+			commit(event, systemId, length);
+		}
+	}
+
+	private void parseDocument(XMLReader parser, BufferedInputStream in, String systemId)
+			throws IOException, SAXException {
+		ValidationEvents.Prolog event = new ValidationEvents.Prolog();
+		event.begin();
+		TMXProlog prolog = TMXProlog.read(in);
+		commit(event, prolog, systemId);
+		parse(parser, prolog.getInputSource(in, systemId));
+	}
+
+	private void parse(XMLReader parser, InputSource source) throws IOException, SAXException {
+		if (!duplicates) {
+			parser.parse(source);
+			return;
+		}
+		// one pair of sets per document, files in an archive are checked on their own
+		try (FingerprintSet tus = new FingerprintSet(); FingerprintSet tuids = new FingerprintSet()) {
+			handler.setDuplicates(tus, tuids);
+			parser.parse(source);
+		} finally {
+			handler.setDuplicates(null, null);
+		}
+	}
+
+	private void parseArchive(XMLReader parser, ZipInputStream zip, String systemId)
+			throws IOException, SAXException {
+		// every TMX file in the archive is validated as it is decompressed
+		boolean failFast = handler.getMaxErrors() == 0;
+		List<ValidationError> errors = new ArrayList<>();
+		boolean found = false;
+		ZipEntry entry = zip.getNextEntry();
+		while (entry != null) {
+			if (!entry.isDirectory() && Compression.isTmxEntry(entry.getName())) {
+				found = true;
+				String name = entry.getName();
+				InputStream entryStream = new FilterInputStream(zip) {
+					@Override
+					public void close() {
+						// the parser must not close the archive
+					}
+				};
+				try {
+					parseDocument(parser, new BufferedInputStream(entryStream, 1 << 16), systemId + "!/" + name);
+				} catch (SAXException e) {
+					if (failFast || TMXValidatingHandler.CANCELLED.equals(e.getMessage())
+							|| TMXValidatingHandler.TIMED_OUT.equals(e.getMessage())) {
+						MessageFormat mf = new MessageFormat(Messages.getString("TMXValidator.6"));
+						throw new SAXException(mf.format(new Object[] { name, e.getMessage() }));
+					}
+					handler.addError(e);
+				}
+				for (ValidationError error : handler.getErrors()) {
+					errors.add(error.inEntry(name));
+				}
+				if (!failFast && errors.size() >= handler.getMaxErrors()) {
+					archiveErrors = new ArrayList<>(errors.subList(0, handler.getMaxErrors()));
+					return;
+				}
+			}
+			entry = zip.getNextEntry();
+		}
+		if (!found) {
+			throw new IOException(Messages.getString("TMXValidator.7"));
+		}
+		archiveErrors = errors;
+	}
+
+	private XMLReader getReader() throws SAXException, ParserConfigurationException {
+		if (reader == null) {
+			reader = createReader(handler, resolver);
+		}
+		setLevel(reader, level);
+		handler.setLevel(level, skipped);
+		return reader;
+	}
+
+	static XMLReader createReader(TMXValidatingHandler handler, TMXResolver resolver)
+			throws SAXException, ParserConfigurationException {
+		XMLReader xmlReader;
+		synchronized (FACTORY) {
+			// factories are not thread safe, parsers created from them are independent
+			xmlReader = FACTORY.newSAXParser().getXMLReader();
+		}
+		xmlReader.setFeature("http://xml.org/sax/features/namespaces", true);
+		xmlReader.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
+		xmlReader.setFeature("http://xml.org/sax/features/validation", true);
+		xmlReader.setFeature("http://apache.org/xml/features/validation/schema", true);
+		xmlReader.setFeature("http://apache.org/xml/features/validation/dynamic", true);
+		xmlReader.setProperty("http://www.oracle.com/xml/jaxp/properties/totalEntitySizeLimit", 0);
+		xmlReader.setContentHandler(handler);
+		xmlReader.setEntityResolver(resolver);
+		xmlReader.setProperty("http://xml.org/sax/properties/lexical-handler", handler);
+		return xmlReader;
 	}
 	
+	static void setLevel(XMLReader xmlReader, ValidationLevel level) throws SAXException {
+		// without validation the DTD is not even loaded
+		boolean validating = level != ValidationLevel.WELL_FORMED;
+		xmlReader.setFeature("http://xml.org/sax/features/validation", validating);
+		xmlReader.setFeature("http://apache.org/xml/features/validation/schema", validating);
+		xmlReader.setFeature("http://apache.org/xml/features/validation/dynamic", validating);
+		xmlReader.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", validating);
+	}
+
 	public static void main(String[] args) {
 		String[] commandLine = fixPath(args);
 		String tmx = "";
+		int maxErrors = 0;
+		int threads = 0;
+		int samples = 0;
+		boolean random = false;
+		boolean duplicates = false;
+		String dir = "";
+		String list = "";
+		String glob = BatchValidator.DEFAULT_GLOB;
+		boolean recursive = false;
+		String cacheDir = "";
+		String checkpoint = "";
+		ValidationLevel level = ValidationLevel.FULL;
+		Set<ValidationCheck> skipped = EnumSet.noneOf(ValidationCheck.class);
 		for (int i = 0; i < commandLine.length; i++) {
 			String arg = commandLine[i];
 			if (arg.equals("-version")) {
@@ -103,19 +551,248 @@ public class TMXValidator {
 			if (arg.equals("-tmx") && (i + 1) < commandLine.length) {
 				tmx = commandLine[i + 1];
 			}
+			if (arg.equals("-dir") && (i + 1) < commandLine.length) {
+				dir = commandLine[i + 1];
+			}
+			if (arg.equals("-list") && (i + 1) < commandLine.length) {
+				list = commandLine[i + 1];
+			}
+			if (arg.equals("-glob") && (i + 1) < commandLine.length) {
+				glob = commandLine[i + 1];
+			}
+			if (arg.equals("-recursive")) {
+				recursive = true;
+			}
+			if (arg.equals("-cache") && (i + 1) < commandLine.length) {
+				cacheDir = commandLine[i + 1];
+			}
+			if (arg.equals("-checkpoint") && (i + 1) < commandLine.length) {
+				checkpoint = commandLine[i + 1];
+			}
+			if (arg.equals("-level") && (i + 1) < commandLine.length) {
+				level = ValidationLevel.fromName(commandLine[i + 1]);
+				if (level == null) {
+					help();
+					return;
+				}
+			}
+			if (arg.equals("-skip") && (i + 1) < commandLine.length) {
+				skipped = ValidationCheck.parse(commandLine[i + 1]);
+				if (skipped == null) {
+					help();
+					return;
+				}
+			}
+			if (arg.equals("-maxErrors") && (i + 1) < commandLine.length) {
+				try {
+					maxErrors = Integer.parseInt(commandLine[i + 1]);
+				} catch (NumberFormatException e) {
+					maxErrors = -1;
+				}
+				if (maxErrors < 1) {
+					help();
+					return;
+				}
+			}
+			if (arg.equals("-sample") && (i + 1) < commandLine.length) {
+				try {
+					samples = Integer.parseInt(commandLine[i + 1]);
+				} catch (NumberFormatException e) {
+					samples = -1;
+				}
+				if (samples < 1) {
+					help();
+					return;
+				}
+			}
+			if (arg.equals("-random")) {
+				random = true;
+			}
+			if (arg.equals("-duplicates")) {
+				duplicates = true;
+			}
+			if (arg.equals("-threads") && (i + 1) < commandLine.length) {
+				try {
+					threads = Integer.parseInt(commandLine[i + 1]);
+				} catch (NumberFormatException e) {
+					threads = -1;
+				}
+				if (threads < 1) {
+					help();
+					return;
+				}
+			}
 		}
-		if (tmx.isEmpty()) {
+		if (dir.isEmpty() && list.isEmpty() && tmx.isEmpty()) {
 			help();
 			return;
 		}
-		try {
+		ResultCache cache = null;
+		if (!cacheDir.isEmpty()) {
+			try {
+				cache = new ResultCache(new File(cacheDir));
+			} catch (IOException e) {
+				LOGGER.log(Level.ERROR, e.getMessage());
+				System.exit(2);
+			}
+		}
+		int exitCode = 0;
+		if (!dir.isEmpty() || !list.isEmpty()) {
+			BatchValidator batch = new BatchValidator(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+			batch.setMaxErrors(maxErrors);
+			batch.setRecursive(recursive);
+			batch.setGlob(glob);
+			batch.setCache(cache);
+			batch.setLevel(level, skipped);
+			batch.setDuplicates(duplicates);
+			exitCode = validateBatch(batch, dir, list);
+		} else if (samples > 0) {
+			try (ParallelValidator validator = new ParallelValidator(threads > 0 ? threads : 1)) {
+				validator.setLevel(level, skipped);
+				sampleFile(validator, tmx, samples, random ? new Random() : null);
+			}
+		} else if (threads > 1 || !checkpoint.isEmpty()) {
+			try (ParallelValidator validator = new ParallelValidator(Math.max(1, threads))) {
+				validator.setLevel(level, skipped);
+				validator.setDuplicates(duplicates);
+				if (!checkpoint.isEmpty()) {
+					validator.setCheckpoint(new File(checkpoint));
+				}
+				boolean full = level == ValidationLevel.FULL && skipped.isEmpty() && !duplicates;
+				validateParallel(validator, tmx, maxErrors, full ? cache : null);
+			}
+		} else {
 			TMXValidator validator = new TMXValidator();
+			validator.setCache(cache);
+			validator.setLevel(level);
+			validator.setSkipped(skipped);
+			validator.setDuplicates(duplicates);
+			validateFile(validator, tmx, maxErrors);
+		}
+		if (cache != null) {
+			try {
+				cache.close();
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, e.getMessage());
+			}
+		}
+		if (exitCode != 0) {
+			System.exit(exitCode);
+		}
+	}
+
+	private static int validateBatch(BatchValidator batch, String dir, String list) {
+		try {
+			if (!dir.isEmpty()) {
+				batch.validateDirectory(new File(dir));
+			}
+			if (!list.isEmpty()) {
+				batch.validateList(new File(list));
+			}
+		} catch (IOException | RuntimeException e) {
+			LOGGER.log(Level.ERROR, e.getMessage());
+			return 2;
+		}
+		LOGGER.log(batch.getInvalid() > 0 ? Level.ERROR : Level.INFO, batch.getSummary());
+		return batch.getInvalid() > 0 ? 1 : 0;
+	}
+
+	private static void validateFile(TMXValidator validator, String tmx, int maxErrors) {
+		try {
+			if (maxErrors > 0) {
+				List<ValidationError> errors = validator.validate(new File(tmx), maxErrors);
+				report(errors, maxErrors);
+				return;
+			}
 			validator.validate(new File(tmx));
 			LOGGER.log(Level.INFO, Messages.getString("TMXValidator.1"));
 		} catch (IOException | SAXException | ParserConfigurationException e) {
 			LOGGER.log(Level.ERROR, e.getMessage());
 		}
 	}
+
+	private static void validateParallel(ParallelValidator validator, String tmx, int maxErrors, ResultCache cache) {
+		File file = new File(tmx);
+		try {
+			// parallel runs only store valid files, their first error is reported differently
+			if (cache != null) {
+				ResultCache.CachedResult cached = cache.lookup(file);
+				if (cached != null && cached.isValid()) {
+					LOGGER.log(Level.INFO, Messages.getString("TMXValidator.1"));
+					return;
+				}
+			}
+			long size = file.length();
+			long modified = file.lastModified();
+			if (maxErrors > 0) {
+				List<ValidationError> errors = validator.validate(file, maxErrors);
+				resumed(validator);
+				if (cache != null && errors.isEmpty()) {
+					cache.store(file, size, modified, true, null);
+				}
+				report(errors, maxErrors);
+				return;
+			}
+			try {
+				validator.validate(file);
+			} finally {
+				resumed(validator);
+			}
+			if (cache != null) {
+				cache.store(file, size, modified, true, null);
+			}
+			LOGGER.log(Level.INFO, Messages.getString("TMXValidator.1"));
+		} catch (IOException | SAXException | ParserConfigurationException e) {
+			LOGGER.log(Level.ERROR, e.getMessage());
+		}
+	}
+
+	private static void sampleFile(ParallelValidator validator, String tmx, int samples, Random random) {
+		try {
+			long start = System.nanoTime();
+			SampleResult result = validator.sample(new File(tmx), samples, random);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			for (ValidationError error : result.getHeaderErrors()) {
+				LOGGER.log(Level.ERROR, error.toString());
+			}
+			MessageFormat location = new MessageFormat(Messages.getString("TMXValidator.11"));
+			for (SampleResult.Sample sample : result.getSamples()) {
+				for (ValidationError error : sample.getErrors()) {
+					LOGGER.log(Level.ERROR, location.format(new Object[] { sample.getOffset(), error.getLine(),
+							error.getColumn(), error.getMessage() }));
+				}
+			}
+			MessageFormat summary = new MessageFormat(Messages.getString("TMXValidator.9"));
+			LOGGER.log(result.getDefective() > 0 ? Level.ERROR : Level.INFO,
+					summary.format(new Object[] { result.getSampled(), result.getEstimatedTus(),
+							result.getDefective(), String.format("%.2f", seconds) }));
+			MessageFormat rate = new MessageFormat(Messages.getString("TMXValidator.10"));
+			LOGGER.log(Level.INFO, rate.format(new Object[] { result.getDefectRate(), result.getLowerBound(),
+					result.getUpperBound() }));
+		} catch (IOException | ParserConfigurationException | RuntimeException e) {
+			LOGGER.log(Level.ERROR, e.getMessage());
+		}
+	}
+
+	private static void resumed(ParallelValidator validator) {
+		if (validator.getResumedFrom() > 0) {
+			MessageFormat mf = new MessageFormat(Messages.getString("TMXValidator.8"));
+			LOGGER.log(Level.INFO, mf.format(new Object[] { validator.getResumedFrom() }));
+		}
+	}
+
+	private static void report(List<ValidationError> errors, int maxErrors) {
+		if (errors.isEmpty()) {
+			LOGGER.log(Level.INFO, Messages.getString("TMXValidator.1"));
+			return;
+		}
+		for (ValidationError error : errors) {
+			LOGGER.log(Level.ERROR, error.toString());
+		}
+		MessageFormat mf = new MessageFormat(Messages.getString(
+				errors.size() < maxErrors ? "TMXValidator.4" : "TMXValidator.5"));
+		LOGGER.log(Level.ERROR, mf.format(new Object[] { errors.size() }));
+	}
 	
 	private static void help() {
 		String launcher = "tmxvalidator.sh";
@@ -147,4 +824,36 @@ public class TMXValidator {
 		}
 		return result.toArray(new String[result.size()]);
 	}
+
+	private static class ByteBufferInputStream extends InputStream {
+
+		private ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer data) {
+			buffer = data.duplicate();
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(len, buffer.remaining());
+			buffer.get(b, off, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
 }
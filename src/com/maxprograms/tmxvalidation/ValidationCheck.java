@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+public enum ValidationCheck {
+
+	// creationdate, changedate and lastusagedate
+	DATES("dates"),
+	// lang, xml:lang, adminlang and srclang codes
+	LANGUAGES("languages"),
+	// every <tuv> has a language and every <tu> has one in the source language
+	SOURCE_LANGUAGE("srclang"),
+	USAGE_COUNT("usagecount"),
+	// <bpt>/<ept> balance and matching 'i' attributes
+	PAIRING("pairing"),
+	// 'x' attributes: numeric, unique per kind and the same in every <tuv>
+	X_ATTRIBUTES("x");
+
+	private String name;
+
+	ValidationCheck(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public static ValidationCheck fromName(String name) {
+		String lower = name.toLowerCase(Locale.ROOT);
+		for (ValidationCheck check : values()) {
+			if (check.name.equals(lower)) {
+				return check;
+			}
+		}
+		return null;
+	}
+
+	public static Set<ValidationCheck> parse(String list) {
+		// comma separated names, null if one of them is unknown
+		Set<ValidationCheck> result = EnumSet.noneOf(ValidationCheck.class);
+		for (String item : list.split(",")) {
+			if (item.isBlank()) {
+				continue;
+			}
+			ValidationCheck check = fromName(item.trim());
+			if (check == null) {
+				return null;
+			}
+			result.add(check);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.text.MessageFormat;
+
+public class ValidationError {
+
+	public static final String PARSER_ERROR = "ValidationError.0";
+
+	private int line;
+	private int column;
+	private long tu;
+	private String key;
+	private Object[] args;
+	private String entry;
+
+	public ValidationError(int line, int column, long tu, String key, Object... args) {
+		this.line = line;
+		this.column = column;
+		this.tu = tu;
+		this.key = key;
+		this.args = args;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	public long getTu() {
+		return tu;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public String getEntry() {
+		return entry;
+	}
+
+	public ValidationError relocate(int newLine, int newColumn) {
+		ValidationError copy = new ValidationError(newLine, newColumn, tu, key, args);
+		copy.entry = entry;
+		return copy;
+	}
+
+	public ValidationError inEntry(String name) {
+		// errors found in a file inside an archive
+		ValidationError copy = new ValidationError(line, column, tu, key, args);
+		copy.entry = name;
+		return copy;
+	}
+
+	public String getMessage() {
+		// messages are only formatted when they are reported
+		if (args == null || args.length == 0) {
+			return Messages.getString(key);
+		}
+		MessageFormat mf = new MessageFormat(Messages.getString(key));
+		return mf.format(args);
+	}
+
+	@Override
+	public String toString() {
+		String text;
+		if (tu > 0) {
+			MessageFormat mf = new MessageFormat(Messages.getString("ValidationError.2"));
+			text = mf.format(new Object[] { line, column, tu, getMessage() });
+		} else {
+			MessageFormat mf = new MessageFormat(Messages.getString("ValidationError.1"));
+			text = mf.format(new Object[] { line, column, getMessage() });
+		}
+		if (entry == null) {
+			return text;
+		}
+		MessageFormat mf = new MessageFormat(Messages.getString("ValidationError.3"));
+		return mf.format(new Object[] { entry, text });
+	}
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+class ValidationEvents {
+
+	private ValidationEvents() {
+		// Flight Recorder events, nothing is recorded unless a recording enables them
+	}
+
+	@Name("com.maxprograms.tmxvalidation.Prolog")
+	@Label("Prolog Sniff")
+	@Category({ "TMXValidator" })
+	@Description("Reading the XML declaration, DOCTYPE and root element before parsing")
+	static class Prolog extends Event {
+
+		@Label("File")
+		String file;
+
+		@Label("Encoding")
+		String encoding;
+
+		@Label("Root Element")
+		String root;
+
+		@Label("DOCTYPE Declared")
+		boolean doctype;
+
+		Prolog() {
+			// fields are set before the event is committed
+		}
+	}
+
+	@Name("com.maxprograms.tmxvalidation.Parse")
+	@Label("Parse")
+	@Category({ "TMXValidator" })
+	@Description("Parsing and validating one document")
+	static class Parse extends Event {
+
+		@Label("File")
+		String file;
+
+		@Label("Size")
+		@DataAmount
+		long bytes;
+
+		@Label("Translation Units")
+		long tus;
+
+		@Label("Errors")
+		int errors;
+
+		Parse() {
+			// fields are set before the event is committed
+		}
+	}
+
+	@Name("com.maxprograms.tmxvalidation.SlowTu")
+	@Label("Slow Translation Unit")
+	@Category({ "TMXValidator" })
+	@Description("A <tu> element that took longer than the threshold to check")
+	@Threshold("10 ms")
+	static class SlowTu extends Event {
+
+		@Label("File")
+		String file;
+
+		@Label("Index")
+		long tu;
+
+		@Label("Line")
+		int line;
+
+		@Label("Column")
+		int column;
+
+		SlowTu() {
+			// fields are set before the event is committed
+		}
+	}
+
+	@Name("com.maxprograms.tmxvalidation.LanguageCheck")
+	@Label("Slow Language Check")
+	@Category({ "TMXValidator" })
+	@Description("A language code lookup that took longer than the threshold")
+	@Threshold("1 ms")
+	static class LanguageCheck extends Event {
+
+		@Label("File")
+		String file;
+
+		@Label("Translation Unit")
+		long tu;
+
+		@Label("Language")
+		String language;
+
+		@Label("Valid")
+		boolean valid;
+
+		LanguageCheck() {
+			// fields are set before the event is committed
+		}
+	}
+
+	@Name("com.maxprograms.tmxvalidation.DtdResolution")
+	@Label("DTD Resolution")
+	@Category({ "TMXValidator" })
+	@Description("Loading a TMX DTD requested by the parser")
+	static class DtdResolution extends Event {
+
+		@Label("System Id")
+		String systemId;
+
+		@Label("Size")
+		@DataAmount
+		long bytes;
+
+		@Label("Cached")
+		boolean cached;
+
+		DtdResolution() {
+			// fields are set before the event is committed
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+
+public class ValidationJob {
+
+	private String id;
+	private long created;
+	private volatile String status;
+	private volatile JSONObject result;
+	private volatile long finished;
+	private ValidationProgress progress = new ValidationProgress();
+	private volatile boolean cancelRequested;
+	private volatile TMXValidator validator;
+	private volatile Future<?> future;
+	private CountDownLatch done = new CountDownLatch(1);
+
+	public ValidationJob(String id) {
+		this.id = id;
+		created = System.currentTimeMillis();
+		status = Constants.QUEUED;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public long getCreated() {
+		return created;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public ValidationProgress getProgress() {
+		return progress;
+	}
+
+	public void setFuture(Future<?> future) {
+		this.future = future;
+	}
+
+	public Future<?> getFuture() {
+		return future;
+	}
+
+	public synchronized void setValidator(TMXValidator validator) {
+		// set to null before the validator goes back to its pool, a late cancel must not reach the next job
+		this.validator = validator;
+		if (cancelRequested && validator != null) {
+			validator.cancel();
+		}
+	}
+
+	public synchronized void cancel() {
+		cancelRequested = true;
+		TMXValidator current = validator;
+		if (current != null) {
+			current.cancel();
+		}
+	}
+
+	public boolean isCancelRequested() {
+		return cancelRequested;
+	}
+
+	public JSONObject getResult() {
+		return result;
+	}
+
+	public long getFinished() {
+		return finished;
+	}
+
+	public boolean isFinished() {
+		return finished != 0;
+	}
+
+	public boolean awaitFinished(long millis) throws InterruptedException {
+		return done.await(millis, TimeUnit.MILLISECONDS);
+	}
+
+	void finish(JSONObject jobResult, String finalStatus) {
+		result = jobResult;
+		status = finalStatus;
+		validator = null;
+		future = null;
+		// threads woken by the latch must see the job as finished
+		finished = System.currentTimeMillis();
+		done.countDown();
+	}
+}
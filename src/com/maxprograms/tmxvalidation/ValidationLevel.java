@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.util.Locale;
+
+public enum ValidationLevel {
+
+	// XML syntax only, the DTD is not read
+	WELL_FORMED,
+	// DTD validation and the <tmx> and <header> checks that every level above needs
+	STRUCTURE,
+	// structure plus the checks listed in ValidationCheck
+	FULL;
+
+	public static ValidationLevel fromName(String name) {
+		return switch (name.toLowerCase(Locale.ROOT)) {
+			case "wellformed" -> WELL_FORMED;
+			case "structure" -> STRUCTURE;
+			case "full" -> FULL;
+			default -> null;
+		};
+	}
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.util.function.LongSupplier;
+
+public class ValidationProgress {
+
+	// written by the validating thread once per buffer fill, read by any thread
+	private volatile long bytesRead;
+	private volatile long totalBytes;
+	private volatile long tus;
+	private volatile long started;
+	private LongSupplier tuCounter = () -> 0;
+
+	public ValidationProgress() {
+		// nothing is reported until a validation starts
+	}
+
+	public void start(long total, LongSupplier counter) {
+		totalBytes = total;
+		tuCounter = counter;
+		bytesRead = 0;
+		tus = 0;
+		started = System.nanoTime();
+	}
+
+	public void setBytesRead(long bytes) {
+		bytesRead = bytes;
+		tus = tuCounter.getAsLong();
+	}
+
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	public long getTus() {
+		return tus;
+	}
+
+	public double getThroughput() {
+		// bytes per second since the parse started
+		long begin = started;
+		if (begin == 0) {
+			return 0.0;
+		}
+		double seconds = (System.nanoTime() - begin) / 1e9;
+		return seconds > 0 ? bytesRead / seconds : 0.0;
+	}
+
+	public long getEta() {
+		// seconds to the end of the file, -1 when unknown
+		double throughput = getThroughput();
+		if (throughput <= 0 || totalBytes <= 0) {
+			return -1;
+		}
+		return Math.round(Math.max(0, totalBytes - bytesRead) / throughput);
+	}
+}
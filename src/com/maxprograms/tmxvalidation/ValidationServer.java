@@ -20,10 +20,18 @@ import java.io.OutputStream;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.net.InetSocketAddress;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
-import java.util.Hashtable;
-import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -39,20 +47,56 @@ public class ValidationServer implements HttpHandler {
 
 	private static final Logger LOGGER = System.getLogger(ValidationServer.class.getName());
 
+	public static final int DEFAULT_QUEUE_LIMIT = 64;
+	public static final int RETRY_AFTER = 5;
+	public static final long PROGRESS_INTERVAL = 500;
+	public static final long HEARTBEAT_INTERVAL = 15_000;
+
 	private HttpServer server;
-	private Map<String, String> running;
-	private Map<String, JSONObject> validationResults;
+	private ThreadPoolExecutor jobs;
+	private JobRegistry registry;
+	private ValidatorPool validators;
+	private Semaphore uploads;
+	private ServerMetrics metrics = new ServerMetrics();
+	private ResultCache cache;
 
 	public ValidationServer(int port) throws IOException {
-		running = new Hashtable<>();
-		validationResults = new Hashtable<>();
+		this(port, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_LIMIT);
+	}
+
+	public ValidationServer(int port, int workers, int queueLimit) throws IOException {
+		this(port, workers, queueLimit, new JobRegistry());
+	}
+
+	public ValidationServer(int port, int workers, int queueLimit, JobRegistry registry) throws IOException {
+		this.registry = registry;
+		// validations wait in a bounded queue, submissions beyond it are refused instead of piling up
+		int threads = Math.max(1, workers);
+		validators = new ValidatorPool(threads);
+		// uploads may hold at most half of the workers, the rest stay free for the validate command
+		uploads = new Semaphore(Math.max(1, threads / 2));
+		jobs = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, queueLimit)));
 		server = HttpServer.create(new InetSocketAddress(port), 0);
 		server.createContext("/ValidationServer", this);
-		server.setExecutor(null); // creates a default executor
+		server.createContext("/ValidationServer/events", this::sendEvents);
+		server.createContext("/ValidationServer/upload", this::upload);
+		server.createContext("/metrics", this::sendMetrics);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	public void setCache(ResultCache cache) {
+		// used by the validate command, uploads have no file to look up
+		this.cache = cache;
 	}
 
 	public static void main(String[] args) {
 		String port = "8010";
+		int workers = Runtime.getRuntime().availableProcessors();
+		int queueLimit = DEFAULT_QUEUE_LIMIT;
+		long ttl = JobRegistry.DEFAULT_TTL;
+		int maxJobs = JobRegistry.DEFAULT_MAX_FINISHED;
+		String cacheDir = "";
 		for (int i = 0; i < args.length; i++) {
 			String arg = args[i];
 			if (arg.equals("-version")) {
@@ -63,20 +107,60 @@ public class ValidationServer implements HttpHandler {
 			if (arg.equals("-port") && (i + 1) < args.length) {
 				port = args[i + 1];
 			}
+			if (arg.equals("-workers") && (i + 1) < args.length) {
+				workers = Integer.parseInt(args[i + 1]);
+			}
+			if (arg.equals("-queue") && (i + 1) < args.length) {
+				queueLimit = Integer.parseInt(args[i + 1]);
+			}
+			if (arg.equals("-ttl") && (i + 1) < args.length) {
+				ttl = TimeUnit.MINUTES.toMillis(Long.parseLong(args[i + 1]));
+			}
+			if (arg.equals("-maxJobs") && (i + 1) < args.length) {
+				maxJobs = Integer.parseInt(args[i + 1]);
+			}
+			if (arg.equals("-cache") && (i + 1) < args.length) {
+				cacheDir = args[i + 1];
+			}
 		}
 		try {
-			ValidationServer instance = new ValidationServer(Integer.valueOf(port));
+			ValidationServer instance = new ValidationServer(Integer.valueOf(port), workers, queueLimit,
+					new JobRegistry(ttl, maxJobs));
+			if (!cacheDir.isEmpty()) {
+				ResultCache cache = new ResultCache(new File(cacheDir));
+				instance.setCache(cache);
+				Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+					try {
+						cache.close();
+					} catch (IOException e) {
+						LOGGER.log(Level.WARNING, e.getMessage());
+					}
+				}));
+			}
 			instance.run();
 		} catch (Exception e) {
 			LOGGER.log(Level.ERROR, e);
 		}
 	}
 
-	private void run() {
+	void run() {
 		server.start();
 		LOGGER.log(Level.INFO, Messages.getString("ValidationServer.1"));
 	}
 
+	int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	ValidatorPool getValidators() {
+		return validators;
+	}
+
+	void stop() {
+		server.stop(0);
+		jobs.shutdownNow();
+	}
+
 	@Override
 	public void handle(HttpExchange t) throws IOException {
 		JSONObject json = null;
@@ -100,6 +184,8 @@ public class ValidationServer implements HttpHandler {
 					response = getStatus(json);
 				} else if ("validationResult".equals(command)) {
 					response = getValidationResult(json);
+				} else if ("cancel".equals(command)) {
+					response = cancel(json);
 				} else {
 					response = "{\"reason\":\"" + Messages.getString("ValidationServer.2") + "\"}";
 				}
@@ -107,17 +193,187 @@ public class ValidationServer implements HttpHandler {
 				response = "{\"reason\":\"" + Messages.getString("ValidationServer.3") + "\"}";
 			}
 			t.getResponseHeaders().add("content-type", "application/json; charset=utf-8");
-			byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
-			t.sendResponseHeaders(200, bytes.length);
-			try (OutputStream os = t.getResponseBody()) {
-				os.write(bytes);
-			}
+			sendResponse(t, 200, response);
+		} catch (RejectedExecutionException e) {
+			sendBusy(t);
 		} catch (IOException | JSONException e) {
-			response = e.getMessage();
-			t.sendResponseHeaders(500, response.length());
-			try (OutputStream os = t.getResponseBody()) {
-				os.write(response.getBytes());
+			sendResponse(t, 500, e.getMessage());
+		}
+	}
+
+	private void sendMetrics(HttpExchange t) throws IOException {
+		String text = metrics.format(jobs.getQueue().size(), jobs.getActiveCount(), validators.getIdle());
+		t.getResponseHeaders().add("content-type", ServerMetrics.CONTENT_TYPE);
+		sendResponse(t, 200, text);
+	}
+
+	private void sendBusy(HttpExchange t) throws IOException {
+		metrics.rejected();
+		JSONObject result = new JSONObject();
+		result.put("status", Constants.ERROR);
+		result.put("reason", Messages.getString("ValidationServer.9"));
+		t.getResponseHeaders().add("content-type", "application/json; charset=utf-8");
+		t.getResponseHeaders().add("Retry-After", String.valueOf(RETRY_AFTER));
+		sendResponse(t, 503, result.toString());
+	}
+
+	private void upload(HttpExchange t) throws IOException {
+		// the request body is the TMX file, parsed while it arrives
+		if (!"POST".equalsIgnoreCase(t.getRequestMethod()) && !"PUT".equalsIgnoreCase(t.getRequestMethod())) {
+			t.getResponseHeaders().add("Allow", "POST, PUT");
+			sendResponse(t, 405, "");
+			return;
+		}
+		String query = t.getRequestURI().getRawQuery();
+		String timeout = getParameter(query, "timeout");
+		boolean gzip = "gzip".equalsIgnoreCase(t.getRequestHeaders().getFirst("Content-Encoding"))
+				|| "true".equals(getParameter(query, "gzip"));
+		if (!uploads.tryAcquire()) {
+			// the body is parsed as it arrives, a slow client holds its worker until the last byte
+			sendBusy(t);
+			return;
+		}
+		JSONObject result;
+		try (InputStream body = t.getRequestBody()) {
+			InputStream in = gzip ? new GZIPInputStream(body, 1 << 16) : body;
+			String systemId = getParameter(query, "name");
+			long seconds = timeout != null ? Long.parseLong(timeout) : 0;
+			Future<JSONObject> future = jobs.submit(() -> validateStream(in, systemId, seconds));
+			result = future.get();
+		} catch (RejectedExecutionException e) {
+			sendBusy(t);
+			return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			sendResponse(t, 500, e.getMessage());
+			return;
+		} catch (ExecutionException | IOException | NumberFormatException e) {
+			result = getOutcome(e instanceof ExecutionException ? e.getCause() : e);
+		} finally {
+			uploads.release();
+		}
+		t.getResponseHeaders().add("content-type", "application/json; charset=utf-8");
+		sendResponse(t, 200, result.toString());
+	}
+
+	private JSONObject validateStream(InputStream in, String systemId, long timeout) {
+		long start = System.nanoTime();
+		ValidationProgress progress = new ValidationProgress();
+		TMXValidator validator = validators.acquire();
+		validator.setProgress(progress);
+		validator.setTimeout(timeout * 1000);
+		// anything but a validation error leaves the kind as a failure
+		String kind = ServerMetrics.FAILED;
+		try {
+			validator.validate(in, systemId);
+			kind = ServerMetrics.VALID;
+			JSONObject result = new JSONObject();
+			result.put("valid", true);
+			result.put("comment", Messages.getString("ValidationServer.8"));
+			return result;
+		} catch (IOException | SAXException | ParserConfigurationException e) {
+			JSONObject result = getOutcome(e);
+			kind = getKind(e, result.getString("reason"));
+			if (ServerMetrics.INVALID.equals(kind)) {
+				metrics.errorsFound(validator.getErrors());
 			}
+			return result;
+		} finally {
+			metrics.jobFinished(kind, progress.getBytesRead(), validator.getTuCount(), System.nanoTime() - start);
+			validators.release(validator);
+		}
+	}
+
+	private static String getKind(Exception e, String reason) {
+		if (TMXValidatingHandler.CANCELLED.equals(reason)) {
+			return ServerMetrics.CANCELLED;
+		}
+		if (TMXValidatingHandler.TIMED_OUT.equals(reason)) {
+			return ServerMetrics.TIMED_OUT;
+		}
+		return e instanceof SAXException ? ServerMetrics.INVALID : ServerMetrics.FAILED;
+	}
+
+	private static JSONObject getOutcome(Throwable e) {
+		JSONObject result = new JSONObject();
+		result.put("valid", false);
+		String reason = e.getMessage() != null ? e.getMessage() : e.toString();
+		if (reason.indexOf('\n') != -1) {
+			reason = reason.substring(0, reason.indexOf('\n'));
+		}
+		result.put("reason", reason);
+		return result;
+	}
+
+	private void sendEvents(HttpExchange t) throws IOException {
+		// Server-Sent Events: progress while the job runs, then its result as soon as it finishes
+		String process = getParameter(t.getRequestURI().getRawQuery(), "process");
+		ValidationJob job = process != null ? registry.get(process) : null;
+		if (job == null) {
+			JSONObject result = new JSONObject();
+			result.put("status", Constants.ERROR);
+			result.put("reason", Messages.getString(process == null ? "ValidationServer.4" : "ValidationServer.10"));
+			t.getResponseHeaders().add("content-type", "application/json; charset=utf-8");
+			sendResponse(t, 404, result.toString());
+			return;
+		}
+		t.getResponseHeaders().add("content-type", "text/event-stream; charset=utf-8");
+		t.getResponseHeaders().add("cache-control", "no-cache");
+		t.sendResponseHeaders(200, 0);
+		try (OutputStream os = t.getResponseBody()) {
+			String lastProgress = "";
+			long lastSent = System.currentTimeMillis();
+			while (!job.awaitFinished(PROGRESS_INTERVAL)) {
+				JSONObject progress = new JSONObject();
+				progress.put("status", job.getStatus());
+				if (Constants.RUNNING.equals(job.getStatus())) {
+					progress.put("progress", getProgress(job.getProgress()));
+				}
+				String data = progress.toString();
+				long now = System.currentTimeMillis();
+				if (!data.equals(lastProgress)) {
+					writeEvent(os, "progress", data);
+					lastProgress = data;
+					lastSent = now;
+				} else if (now - lastSent >= HEARTBEAT_INTERVAL) {
+					os.write(":\n\n".getBytes(StandardCharsets.UTF_8));
+					os.flush();
+					lastSent = now;
+				}
+			}
+			JSONObject result = new JSONObject(job.getResult().toString());
+			result.put("status", job.getStatus());
+			writeEvent(os, "result", result.toString());
+			// the result was delivered, as with validationResult
+			registry.remove(job);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void writeEvent(OutputStream os, String event, String data) throws IOException {
+		os.write(("event: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+		os.flush();
+	}
+
+	private static String getParameter(String query, String name) {
+		if (query == null) {
+			return null;
+		}
+		for (String pair : query.split("&")) {
+			int index = pair.indexOf('=');
+			if (index != -1 && pair.substring(0, index).equals(name)) {
+				return URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8);
+			}
+		}
+		return null;
+	}
+
+	private static void sendResponse(HttpExchange t, int code, String response) throws IOException {
+		byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+		t.sendResponseHeaders(code, bytes.length);
+		try (OutputStream os = t.getResponseBody()) {
+			os.write(bytes);
 		}
 	}
 
@@ -142,10 +398,15 @@ public class ValidationServer implements HttpHandler {
 			result.put("reason", Messages.getString("ValidationServer.4"));
 			return result.toString();
 		}
-		String process = json.getString("process");
-		String status = running.get(process);
-		if (status != null) {
+		ValidationJob job = registry.get(json.getString("process"));
+		if (job != null) {
+			String status = job.getStatus();
 			result.put("status", status);
+			if (Constants.RUNNING.equals(status)) {
+				result.put("progress", getProgress(job.getProgress()));
+			} else if (Constants.CANCELLED.equals(status) || Constants.TIMED_OUT.equals(status)) {
+				result.put("reason", job.getResult().getString("reason"));
+			}
 		} else {
 			result.put("status", Constants.ERROR);
 			result.put("reason", Messages.getString("ValidationServer.5"));
@@ -153,6 +414,16 @@ public class ValidationServer implements HttpHandler {
 		return result.toString();
 	}
 
+	private static JSONObject getProgress(ValidationProgress progress) {
+		JSONObject result = new JSONObject();
+		result.put("bytesRead", progress.getBytesRead());
+		result.put("totalBytes", progress.getTotalBytes());
+		result.put("tus", progress.getTus());
+		result.put("throughput", Math.round(progress.getThroughput()));
+		result.put("eta", progress.getEta());
+		return result;
+	}
+
 	private String getValidationResult(JSONObject json) {
 		JSONObject result = new JSONObject();
 		if (!json.has("process")) {
@@ -160,11 +431,11 @@ public class ValidationServer implements HttpHandler {
 			result.put("reason", Messages.getString("ValidationServer.4"));
 			return result.toString();
 		}
-		String process = json.getString("process");
-		if (validationResults.containsKey(process)) {
-			result = validationResults.get(process);
-			validationResults.remove(process);
-			return result.toString();
+		ValidationJob job = registry.get(json.getString("process"));
+		if (job != null && job.isFinished()) {
+			// results are delivered once
+			registry.remove(job);
+			return job.getResult().toString();
 		}
 		result.put("status", Constants.ERROR);
 		result.put("reason", Messages.getString("ValidationServer.6"));
@@ -179,34 +450,105 @@ public class ValidationServer implements HttpHandler {
 			return result.toString();
 		}
 		String file = json.getString("file");
-		String process = "" + System.currentTimeMillis();
-		new Thread(new Runnable() {
-
-			@Override
-			public void run() {
-				running.put(process, Constants.RUNNING);
-				JSONObject result = new JSONObject();
-				TMXValidator validator = new TMXValidator();
-				try {
-					validator.validate(new File(file));
-					result.put("valid", true);
-					result.put("comment", Messages.getString("ValidationServer.8"));
-				} catch (IOException | SAXException | ParserConfigurationException e) {
-					result.put("valid", false);
-					String reason = e.getMessage();
-					if (reason.indexOf('\n') != -1) {
-						reason = reason.substring(0, reason.indexOf('\n'));
-					}
-					result.put("reason", reason);
-				}
-				validationResults.put(process, result);
-				if (running.get(process).equals(Constants.RUNNING)) {
-					running.put(process, Constants.COMPLETED);
-				}
-			}
-		}).start();
+		long timeout = json.has("timeout") ? json.getLong("timeout") : 0;
+		ValidationJob job = registry.create();
+		try {
+			job.setFuture(jobs.submit(() -> runJob(job, file, timeout)));
+		} catch (RejectedExecutionException e) {
+			registry.remove(job);
+			throw e;
+		}
 		result.put("status", Constants.SUCCESS);
-		result.put("process", process);
+		result.put("process", job.getId());
+		return result.toString();
+	}
+
+	private void runJob(ValidationJob job, String file, long timeout) {
+		if (job.isCancelRequested()) {
+			registry.finish(job, stoppedResult(TMXValidatingHandler.CANCELLED), Constants.CANCELLED);
+			return;
+		}
+		job.setStatus(Constants.RUNNING);
+		long start = System.nanoTime();
+		// what the job reports if the validator fails with anything but a validation error
+		JSONObject outcome = stoppedResult(Messages.getString("ValidationServer.11"));
+		String status = Constants.ERROR;
+		String kind = ServerMetrics.FAILED;
+		TMXValidator validator = validators.acquire();
+		validator.setProgress(job.getProgress());
+		validator.setTimeout(timeout * 1000);
+		validator.setCache(cache);
+		job.setValidator(validator);
+		try {
+			validator.validate(new File(file));
+			outcome = new JSONObject();
+			outcome.put("valid", true);
+			outcome.put("comment", Messages.getString("ValidationServer.8"));
+			status = Constants.COMPLETED;
+			kind = ServerMetrics.VALID;
+		} catch (IOException | SAXException | ParserConfigurationException e) {
+			outcome = getOutcome(e);
+			String reason = outcome.getString("reason");
+			status = Constants.COMPLETED;
+			if (TMXValidatingHandler.CANCELLED.equals(reason)) {
+				status = Constants.CANCELLED;
+			} else if (TMXValidatingHandler.TIMED_OUT.equals(reason)) {
+				status = Constants.TIMED_OUT;
+			}
+			kind = getKind(e, reason);
+			if (ServerMetrics.INVALID.equals(kind) && !validator.isCached()) {
+				metrics.errorsFound(validator.getErrors());
+			}
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.ERROR, e.getMessage(), e);
+			outcome = getOutcome(e);
+		} finally {
+			job.setValidator(null);
+			if (validator.isCached()) {
+				metrics.cacheHit(kind);
+			} else {
+				// only the bytes the parser consumed, a validation that stops early did not read the whole file
+				metrics.jobFinished(kind, job.getProgress().getBytesRead(), validator.getTuCount(),
+						System.nanoTime() - start);
+			}
+			if (!Constants.ERROR.equals(status)) {
+				// a validator that failed unexpectedly may be left in any state, it is not reused
+				validators.release(validator);
+			}
+			// every job ends, or status requests and event streams would wait for it forever
+			registry.finish(job, outcome, status);
+		}
+	}
+
+	private static JSONObject stoppedResult(String reason) {
+		JSONObject result = new JSONObject();
+		result.put("valid", false);
+		result.put("reason", reason);
+		return result;
+	}
+
+	private String cancel(JSONObject json) {
+		JSONObject result = new JSONObject();
+		if (!json.has("process")) {
+			result.put("status", Constants.ERROR);
+			result.put("reason", Messages.getString("ValidationServer.4"));
+			return result.toString();
+		}
+		ValidationJob job = registry.get(json.getString("process"));
+		if (job == null) {
+			result.put("status", Constants.ERROR);
+			result.put("reason", Messages.getString("ValidationServer.10"));
+			return result.toString();
+		}
+		if (!job.isFinished()) {
+			job.cancel();
+			Future<?> future = job.getFuture();
+			if (future instanceof Runnable task && jobs.remove(task)) {
+				// the job was still queued, it will never start
+				registry.finish(job, stoppedResult(TMXValidatingHandler.CANCELLED), Constants.CANCELLED);
+			}
+		}
+		result.put("status", job.getStatus());
 		return result.toString();
 	}
 }
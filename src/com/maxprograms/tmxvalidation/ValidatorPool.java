@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class ValidatorPool {
+
+	public static final int DEFAULT_MAX_IDLE = 16;
+
+	private BlockingQueue<TMXValidator> idle;
+
+	public ValidatorPool() {
+		this(DEFAULT_MAX_IDLE);
+	}
+
+	public ValidatorPool(int maxIdle) {
+		idle = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+	}
+
+	public TMXValidator acquire() {
+		// an idle validator keeps its parser, already loaded and warmed up by previous documents
+		TMXValidator validator = idle.poll();
+		return validator != null ? validator : new TMXValidator();
+	}
+
+	public void release(TMXValidator validator) {
+		// validators beyond the limit are left to the garbage collector
+		validator.reset();
+		idle.offer(validator);
+	}
+
+	public int getIdle() {
+		return idle.size();
+	}
+}
@@ -17,5 +17,6 @@ module tmxvalidator {
 	requires transitive xmljava;
 	requires transitive javabcp47;
 	requires transitive jdk.httpserver;
-	requires json;
+	requires transitive json;
+	requires jdk.jfr;
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CancellationTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void queuedJobsCanBeCancelled() throws Exception {
+		// a single worker keeps the second job in the queue while it validates the first one
+		try (TestServer server = new TestServer(1, 4)) {
+			File large = TestDocuments.generate(dir, "large.tmx", 60_000, null, 0);
+			JSONObject first = server
+					.command(new JSONObject().put("command", "validate").put("file", large.getAbsolutePath()));
+			File small = TestDocuments.write(dir, "small.tmx", TestDocuments.tmx(TestDocuments.VALID_TU));
+			String second = server
+					.command(new JSONObject().put("command", "validate").put("file", small.getAbsolutePath()))
+					.getString("process");
+			JSONObject cancel = server.command(new JSONObject().put("command", "cancel").put("process", second));
+			assertEquals(Constants.CANCELLED, cancel.getString("status"));
+			JSONObject result = server.events(second);
+			assertEquals(Constants.CANCELLED, result.getString("status"));
+			assertTrue(server.awaitResult(first.getString("process")).getBoolean("valid"));
+		}
+	}
+
+	@Test
+	void unknownJobsCannotBeCancelled() throws Exception {
+		try (TestServer server = new TestServer(1, 4)) {
+			JSONObject cancel = server.command(new JSONObject().put("command", "cancel").put("process", "missing"));
+			assertEquals(Constants.ERROR, cancel.getString("status"));
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CheckpointTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void appendedTusAreValidated() throws Exception {
+		File file = TestDocuments.generate(dir, "growing.tmx", 60_000, null, 0);
+		File checkpoint = dir.resolve("growing.checkpoint").toFile();
+		try (ParallelValidator validator = new ParallelValidator(4)) {
+			validator.setCheckpoint(checkpoint);
+			assertTrue(validator.validate(file, 100).isEmpty());
+			assertEquals(-1, validator.getResumedFrom());
+			assertTrue(checkpoint.exists());
+
+			// append two <tu> elements, one of them invalid, as a growing memory would
+			String content = Files.readString(file.toPath());
+			int end = content.lastIndexOf("</body>");
+			String added = TestDocuments.tu(70_001, "a", "b")
+					+ TestDocuments.tu(70_002, "a", "b").replace("<tu ", "<tu usagecount=\"x\" ");
+			Files.writeString(file.toPath(), content.substring(0, end) + added + content.substring(end));
+			List<ValidationError> resumed = validator.validate(file, 100);
+			assertEquals(end, validator.getResumedFrom());
+			assertEquals(TestDocuments.describe(new TMXValidator().validate(file, 100)), TestDocuments.describe(resumed));
+
+			// a changed prefix is read again from the start
+			Files.writeString(file.toPath(), content.replaceFirst("tuid=\"1\"", "tuid=\"one\""));
+			validator.validate(file, 100);
+			assertEquals(-1, validator.getResumedFrom());
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DuplicatesTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void duplicatesAreReported() throws Exception {
+		String body = TestDocuments.tu(1, "a", "b") + TestDocuments.tu(2, "a", "c") + TestDocuments.tu(1, "a", "b")
+				+ TestDocuments.tu(2, "a", "d");
+		File file = TestDocuments.write(dir, "duplicates.tmx", TestDocuments.tmx(body));
+		assertTrue(new TMXValidator().validate(file, 10).isEmpty());
+		TMXValidator validator = new TMXValidator();
+		validator.setDuplicates(true);
+		List<String> errors = TestDocuments.describe(validator.validate(file, 10));
+		assertEquals(3, errors.size(), errors.toString());
+		assertTrue(errors.get(0).endsWith("#3 TMXValidatingHandler.27"), errors.toString());
+		assertTrue(errors.get(1).endsWith("#3 TMXValidatingHandler.26"), errors.toString());
+		assertTrue(errors.get(2).endsWith("#4 TMXValidatingHandler.27"), errors.toString());
+	}
+
+	@Test
+	void duplicatesAcrossChunks() throws Exception {
+		File large = TestDocuments.generate(dir, "large.tmx", 60_000, null, 0);
+		assertTrue(large.length() > ParallelValidator.MIN_FILE_SIZE);
+		String content = Files.readString(large.toPath());
+		// chunks are at least MIN_CHUNK_SIZE bytes: a <tu> near the start of the second chunk gets an earlier
+		// copy near the end of the first one, the second chunk reaches the original before the copy is read
+		int original = content.indexOf("<tu ", (int) (ParallelValidator.MIN_CHUNK_SIZE * 1.2));
+		String moved = content.substring(original, content.indexOf("</tu>", original) + 6);
+		int copy = content.indexOf("<tu ", (int) (ParallelValidator.MIN_CHUNK_SIZE * 0.8));
+		// and copies of the first <tu> in the middle of the file and at its end
+		String first = content.substring(content.indexOf("<tu "), content.indexOf("</tu>") + 6);
+		int middle = content.indexOf("<tu ", content.length() / 2);
+		int end = content.lastIndexOf("</body>");
+		String copies = new StringBuilder(content).insert(end, first).insert(middle, first).insert(copy, moved)
+				.toString();
+		File file = TestDocuments.write(dir, "duplicates.tmx", copies);
+		TMXValidator sequential = new TMXValidator();
+		sequential.setDuplicates(true);
+		List<String> expected = TestDocuments.describe(sequential.validate(file, 10_000));
+		assertEquals(6, expected.size(), expected.toString());
+		try (ParallelValidator validator = new ParallelValidator(4)) {
+			validator.setDuplicates(true);
+			for (int i = 0; i < 3; i++) {
+				assertEquals(expected, TestDocuments.describe(validator.validate(file, 10_000)));
+			}
+			assertEquals(expected.subList(0, 3), TestDocuments.describe(validator.validate(file, 3)));
+		}
+	}
+}
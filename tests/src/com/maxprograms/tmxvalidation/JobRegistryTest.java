@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+public class JobRegistryTest {
+
+	@Test
+	void deliveredJobsLeaveTheRegistry() {
+		try (JobRegistry registry = new JobRegistry(TimeUnit.HOURS.toMillis(1), 10)) {
+			for (int i = 0; i < 100; i++) {
+				ValidationJob job = registry.create();
+				registry.finish(job, new JSONObject(), Constants.COMPLETED);
+				registry.remove(job);
+			}
+			assertEquals(0, registry.size());
+			assertEquals(0, registry.getFinishedCount());
+		}
+	}
+
+	@Test
+	void oldestFinishedJobsAreEvicted() {
+		try (JobRegistry registry = new JobRegistry(TimeUnit.HOURS.toMillis(1), 2)) {
+			ValidationJob first = registry.create();
+			ValidationJob second = registry.create();
+			ValidationJob third = registry.create();
+			ValidationJob running = registry.create();
+			registry.finish(first, new JSONObject(), Constants.COMPLETED);
+			registry.finish(second, new JSONObject(), Constants.COMPLETED);
+			registry.finish(third, new JSONObject(), Constants.COMPLETED);
+			assertNull(registry.get(first.getId()));
+			assertSame(second, registry.get(second.getId()));
+			assertSame(third, registry.get(third.getId()));
+			assertSame(running, registry.get(running.getId()));
+			assertEquals(2, registry.getFinishedCount());
+		}
+	}
+
+	@Test
+	void removedJobsAreNotRegisteredWhenTheyFinish() {
+		try (JobRegistry registry = new JobRegistry(TimeUnit.HOURS.toMillis(1), 10)) {
+			ValidationJob job = registry.create();
+			registry.remove(job);
+			registry.finish(job, new JSONObject(), Constants.CANCELLED);
+			assertEquals(0, registry.getFinishedCount());
+			assertTrue(job.isFinished());
+		}
+	}
+
+	@Test
+	void expiredJobsAreSwept() throws Exception {
+		try (JobRegistry registry = new JobRegistry(1, 10)) {
+			ValidationJob job = registry.create();
+			registry.finish(job, new JSONObject(), Constants.COMPLETED);
+			Thread.sleep(20);
+			registry.sweep();
+			assertNull(registry.get(job.getId()));
+			assertEquals(0, registry.getFinishedCount());
+		}
+	}
+
+	@Test
+	void waitersSeeTheJobFinished() throws Exception {
+		try (JobRegistry registry = new JobRegistry(TimeUnit.HOURS.toMillis(1), 10)) {
+			for (int i = 0; i < 200; i++) {
+				ValidationJob job = registry.create();
+				CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+					try {
+						return job.awaitFinished(10_000) && job.isFinished();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return false;
+					}
+				});
+				registry.finish(job, new JSONObject(), Constants.COMPLETED);
+				assertTrue(waiter.get());
+				registry.remove(job);
+			}
+			assertEquals(0, registry.getFinishedCount());
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXException;
+
+public class ParallelValidatorTest {
+
+	@TempDir
+	static Path dir;
+
+	// large enough to be split in several chunks
+	static File large;
+
+	@BeforeAll
+	static void generate() throws Exception {
+		large = TestDocuments.generate(dir, "large.tmx", 60_000, TMXGenerator.ErrorKind.USAGECOUNT, 0.001);
+		assertTrue(large.length() > ParallelValidator.MIN_FILE_SIZE);
+	}
+
+	@Test
+	void sameErrorsAsSequential() throws Exception {
+		List<String> sequential = TestDocuments.describe(new TMXValidator().validate(large, 10_000));
+		assertTrue(sequential.size() > 10);
+		for (int threads : new int[] { 2, 4, 7 }) {
+			try (ParallelValidator validator = new ParallelValidator(threads)) {
+				assertEquals(sequential, TestDocuments.describe(validator.validate(large, 10_000)), "threads " + threads);
+			}
+		}
+	}
+
+	@Test
+	void capKeepsTheFirstErrors() throws Exception {
+		// errors found by later chunks must not push out the ones before them
+		List<String> sequential = TestDocuments.describe(new TMXValidator().validate(large, 10_000));
+		try (ParallelValidator validator = new ParallelValidator(4)) {
+			assertEquals(sequential.subList(0, 5), TestDocuments.describe(validator.validate(large, 5)));
+			String first = new TMXValidator().validate(large, 1).get(0).toString();
+			assertEquals(first, assertThrows(SAXException.class, () -> validator.validate(large)).getMessage());
+		}
+	}
+
+	@Test
+	void columnsCountCharacters() throws Exception {
+		// one line for the whole body, so every chunk starts in the middle of it
+		StringBuilder body = new StringBuilder();
+		String tu = TestDocuments.tu(0, "caf\u00e9 \u65e5\u672c\u8a9e \ud83d\ude00", "\u00f1and\u00fa \ud83d\ude00")
+				.replace("\n", "");
+		int i = 0;
+		while (body.length() < ParallelValidator.MIN_FILE_SIZE) {
+			String next = tu.replace("tuid=\"0\"", "tuid=\"" + i + "\"");
+			body.append(i % 5000 == 0 ? next.replace("<tu ", "<tu usagecount=\"x\" ") : next);
+			i++;
+		}
+		File file = TestDocuments.write(dir, "oneline.tmx", TestDocuments.tmx(body.append('\n').toString()));
+		assertTrue(file.length() > ParallelValidator.MIN_FILE_SIZE);
+		List<ValidationError> sequential = new TMXValidator().validate(file, 10_000);
+		assertTrue(sequential.size() > 10);
+		try (ParallelValidator validator = new ParallelValidator(4)) {
+			List<ValidationError> parallel = validator.validate(file, 10_000);
+			assertEquals(TestDocuments.describe(sequential), TestDocuments.describe(parallel));
+		}
+	}
+}
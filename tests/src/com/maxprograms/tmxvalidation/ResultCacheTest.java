@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXException;
+
+public class ResultCacheTest {
+
+	@TempDir
+	Path dir;
+
+	private static String body(int tus) {
+		StringBuilder body = new StringBuilder();
+		for (int i = 1; i <= tus; i++) {
+			body.append(TestDocuments.tu(i, "source " + i, "destino " + i));
+		}
+		return body.toString();
+	}
+
+	@Test
+	void copiesMatchByContent() throws Exception {
+		File file = TestDocuments.write(dir, "valid.tmx", TestDocuments.tmx(body(5000)));
+		try (ResultCache cache = new ResultCache(dir.resolve("cache").toFile())) {
+			TMXValidator validator = new TMXValidator();
+			validator.setCache(cache);
+			validator.validate(file);
+			assertEquals(1, cache.size());
+			File copy = dir.resolve("copy.tmx").toFile();
+			Files.copy(file.toPath(), copy.toPath());
+			ResultCache.CachedResult cached = cache.lookup(copy);
+			assertNotNull(cached);
+			assertTrue(cached.isValid());
+		}
+	}
+
+	@Test
+	void invalidFilesAreHashedPastTheError() throws Exception {
+		// fail-fast stops at the first <tu>, the rest of the file still counts for the hash
+		String body = TestDocuments.tu(0, "a", "b").replace("<tu ", "<tu usagecount=\"x\" ") + body(5000);
+		File file = TestDocuments.write(dir, "invalid.tmx", TestDocuments.tmx(body));
+		try (ResultCache cache = new ResultCache(dir.resolve("cache").toFile())) {
+			TMXValidator validator = new TMXValidator();
+			validator.setCache(cache);
+			SAXException e = assertThrows(SAXException.class, () -> validator.validate(file));
+			File copy = dir.resolve("copy.tmx").toFile();
+			Files.copy(file.toPath(), copy.toPath());
+			ResultCache.CachedResult cached = cache.lookup(copy);
+			assertNotNull(cached);
+			assertFalse(cached.isValid());
+			assertEquals(e.getMessage(), cached.getReason());
+		}
+	}
+
+	@Test
+	void resultsAreSaved() throws Exception {
+		File file = TestDocuments.write(dir, "valid.tmx", TestDocuments.tmx(TestDocuments.VALID_TU));
+		File directory = dir.resolve("cache").toFile();
+		try (ResultCache cache = new ResultCache(directory)) {
+			TMXValidator validator = new TMXValidator();
+			validator.setCache(cache);
+			assertTrue(validator.validate(file, 10).isEmpty());
+		}
+		try (ResultCache cache = new ResultCache(directory)) {
+			assertTrue(cache.lookup(file).isValid());
+			Files.writeString(file.toPath(), TestDocuments.tmx(TestDocuments.tu(2, "changed", "cambiado")));
+			assertNull(cache.lookup(file));
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SamplingTest {
+
+	@TempDir
+	Path dir;
+
+	private File commented(int tus) throws Exception {
+		// comments and CDATA sections that hold <tu> start tags between and inside the real ones
+		StringBuilder body = new StringBuilder();
+		for (int i = 1; i <= tus; i++) {
+			body.append("<!-- old: <tu><tuv xml:lang=\"en\"> -->\n");
+			if (i % 3 == 0) {
+				body.append("<!-- <tu tuid=\"old\"><tuv xml:lang=\"en\"><seg>gone</seg></tuv></tu> -->\n");
+			}
+			String en = i % 5 == 0 ? "<![CDATA[a <tu> inside]]>" : "segment " + i;
+			body.append(TestDocuments.tu(i, en, "segmento " + i));
+		}
+		return TestDocuments.write(dir, "commented.tmx", TestDocuments.tmx(body.toString()));
+	}
+
+	@Test
+	void commentsAndCdataAreNotSampled() throws Exception {
+		File file = commented(400);
+		assertTrue(new TMXValidator().validate(file, 10).isEmpty());
+		try (ParallelValidator validator = new ParallelValidator(2)) {
+			for (Random random : new Random[] { null, new Random(1), new Random(2) }) {
+				SampleResult result = validator.sample(file, 200, random);
+				assertTrue(result.getHeaderErrors().isEmpty());
+				assertEquals(0, result.getDefective());
+				assertTrue(result.getSampled() > 100);
+				long estimate = result.getEstimatedTus();
+				assertTrue(estimate > 300 && estimate < 500, String.valueOf(estimate));
+			}
+		}
+	}
+
+	@Test
+	void defectsAreFound() throws Exception {
+		File file = TestDocuments.generate(dir, "errors.tmx", 4000, TMXGenerator.ErrorKind.USAGECOUNT, 0.2);
+		try (ParallelValidator validator = new ParallelValidator(1)) {
+			SampleResult result = validator.sample(file, 500, new Random(3));
+			assertTrue(result.getDefective() > 0);
+			assertTrue(result.getLowerBound() < 0.2 && result.getUpperBound() > 0.2);
+			for (SampleResult.Sample sample : result.getSamples()) {
+				for (ValidationError error : sample.getErrors()) {
+					assertEquals("TMXValidatingHandler.11", error.getKey());
+				}
+			}
+		}
+	}
+
+	@Test
+	void longTusDoNotHideShortOnes() throws Exception {
+		// half of the <tu> elements are short and invalid, each one follows a long valid <tu> and is hit far
+		// more often by an offset
+		StringBuilder body = new StringBuilder();
+		String text = "long segment ".repeat(100);
+		for (int i = 1; i <= 1000; i++) {
+			body.append(TestDocuments.tu(2 * i, text, text));
+			body.append(TestDocuments.tu(2 * i + 1, "a", "b").replace("<tu ", "<tu usagecount=\"x\" "));
+		}
+		File file = TestDocuments.write(dir, "mixed.tmx", TestDocuments.tmx(body.toString()));
+		try (ParallelValidator validator = new ParallelValidator(2)) {
+			// random offsets, evenly spaced ones would all fall on the same kind of <tu> in a file this regular
+			for (Random random : new Random[] { new Random(4), new Random(5) }) {
+				SampleResult result = validator.sample(file, 400, random);
+				assertTrue(result.getLowerBound() < 0.5 && result.getUpperBound() > 0.5,
+						result.getLowerBound() + " " + result.getUpperBound());
+				long estimate = result.getEstimatedTus();
+				assertTrue(estimate > 1800 && estimate < 2200, String.valueOf(estimate));
+			}
+		}
+	}
+
+	@Test
+	void wilsonInterval() {
+		List<SampleResult.Sample> samples = new ArrayList<>();
+		ValidationError error = new ValidationError(1, 1, 1, "TMXValidatingHandler.11", "x");
+		for (int i = 0; i < 100; i++) {
+			samples.add(new SampleResult.Sample(i, 10, 10, 1, i < 5 ? List.of(error) : List.of()));
+		}
+		SampleResult result = new SampleResult(List.of(), samples, 1000, 100);
+		assertEquals(0.05, result.getDefectRate(), 1e-9);
+		assertEquals(0.0215, result.getLowerBound(), 1e-4);
+		assertEquals(0.1118, result.getUpperBound(), 1e-4);
+		assertEquals(100, result.getEstimatedTus());
+
+		SampleResult none = new SampleResult(List.of(), samples.subList(10, 100), 900, 90);
+		assertEquals(0, none.getLowerBound(), 1e-9);
+		assertTrue(none.getUpperBound() > 0 && none.getUpperBound() < 0.05);
+	}
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TMXGeneratorTest {
+
+	@TempDir
+	Path dir;
+
+	private void conflicting(TMXGenerator.ErrorKind first, TMXGenerator.ErrorKind second) throws Exception {
+		// both kinds are injected in every <tu> that can take them, only one of them can be written
+		TMXGenerator generator = new TMXGenerator();
+		generator.setTus(500);
+		generator.setInlineDensity(3);
+		generator.setErrorRate(first, 1.0);
+		generator.setErrorRate(second, 1.0);
+		File file = dir.resolve(first + "-" + second + ".tmx").toFile();
+		generator.generate(file);
+		List<ValidationError> errors = new TMXValidator().validate(file, 100_000);
+		Set<Long> tus = new HashSet<>();
+		for (ValidationError error : errors) {
+			tus.add(error.getTu());
+		}
+		assertTrue(generator.getErrorCount() > 0);
+		assertEquals(tus.size(), generator.getErrorCount());
+	}
+
+	@Test
+	void unbalancedHidesPairing() throws Exception {
+		conflicting(TMXGenerator.ErrorKind.UNBALANCED, TMXGenerator.ErrorKind.PAIRING);
+	}
+
+	@Test
+	void badXHidesMismatch() throws Exception {
+		conflicting(TMXGenerator.ErrorKind.XVALUE, TMXGenerator.ErrorKind.XMISMATCH);
+	}
+
+	@Test
+	void missingLanguageHidesBadLanguage() throws Exception {
+		conflicting(TMXGenerator.ErrorKind.TUVLANG, TMXGenerator.ErrorKind.LANG);
+	}
+
+	@Test
+	void sameFileForTheSameSeed() throws Exception {
+		File first = TestDocuments.generate(dir, "first.tmx", 200, TMXGenerator.ErrorKind.DATE, 0.1);
+		File second = TestDocuments.generate(dir, "second.tmx", 200, TMXGenerator.ErrorKind.DATE, 0.1);
+		assertEquals(-1, Files.mismatch(first.toPath(), second.toPath()));
+	}
+
+	@Test
+	void generatedErrorsAreFound() throws Exception {
+		File file = TestDocuments.generate(dir, "generated.tmx", 2000, TMXGenerator.ErrorKind.DATE, 0.05);
+		List<ValidationError> errors = new TMXValidator().validate(file, 10_000);
+		assertTrue(errors.size() > 50);
+		for (ValidationError error : errors) {
+			assertEquals("TMXValidatingHandler.12", error.getKey());
+		}
+	}
+}
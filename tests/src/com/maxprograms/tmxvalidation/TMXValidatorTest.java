@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXException;
+
+public class TMXValidatorTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void validFile() throws Exception {
+		File file = TestDocuments.write(dir, "valid.tmx", TestDocuments.tmx(TestDocuments.VALID_TU));
+		TMXValidator validator = new TMXValidator();
+		validator.validate(file);
+		assertTrue(validator.validate(file, 10).isEmpty());
+	}
+
+	@Test
+	void failFastStopsAtFirstError() throws Exception {
+		String body = TestDocuments.tu(1, "a", "b").replace("<tu ", "<tu usagecount=\"x\" ")
+				+ TestDocuments.tu(2, "a", "b").replace("<tu ", "<tu usagecount=\"y\" ");
+		File file = TestDocuments.write(dir, "errors.tmx", TestDocuments.tmx(body));
+		TMXValidator validator = new TMXValidator();
+		assertThrows(SAXException.class, () -> validator.validate(file));
+		assertEquals(1, validator.getErrors().size());
+	}
+
+	@Test
+	void collectModeListsEveryError() throws Exception {
+		StringBuilder body = new StringBuilder();
+		for (int i = 1; i <= 5; i++) {
+			body.append(TestDocuments.tu(i, "a", "b").replace("<tu ", "<tu usagecount=\"x\" "));
+		}
+		File file = TestDocuments.write(dir, "errors.tmx", TestDocuments.tmx(body.toString()));
+		List<ValidationError> errors = new TMXValidator().validate(file, 100);
+		assertEquals(5, errors.size());
+		for (int i = 0; i < errors.size(); i++) {
+			assertEquals("TMXValidatingHandler.11", errors.get(i).getKey());
+			assertEquals(i + 1, errors.get(i).getTu());
+		}
+		assertEquals(3, new TMXValidator().validate(file, 3).size());
+	}
+
+	@Test
+	void collectModeKeepsParserErrors() throws Exception {
+		String body = TestDocuments.tu(1, "a <foo/>", "b") + TestDocuments.tu(2, "a", "b").replace("<tu ",
+				"<tu usagecount=\"x\" ");
+		File file = TestDocuments.write(dir, "mixed.tmx", TestDocuments.tmx(body));
+		List<ValidationError> errors = new TMXValidator().validate(file, 100);
+		assertTrue(TestDocuments.keys(errors).contains(ValidationError.PARSER_ERROR));
+		assertTrue(TestDocuments.keys(errors).contains("TMXValidatingHandler.11"));
+	}
+
+	@Test
+	void numbersMatchAsStrings() throws Exception {
+		String body = TestDocuments.tu(1, "<ph x=\"1\"/>", "<ph x=\"01\"/>")
+				+ TestDocuments.tu(2, "<bpt i=\"1\"/>a<ept i=\"1.0\"/>", "b")
+				+ TestDocuments.tu(3, "<ph x=\"1\"/><ph x=\"1.0\"/>", "<ph x=\"1.0\"/><ph x=\"1\"/>");
+		File file = TestDocuments.write(dir, "numbers.tmx", TestDocuments.tmx(body));
+		List<String> errors = TestDocuments.describe(new TMXValidator().validate(file, 10));
+		assertEquals(2, errors.size(), errors.toString());
+		assertTrue(errors.get(0).endsWith("#1 TMXValidatingHandler.16"), errors.toString());
+		assertTrue(errors.get(1).endsWith("#2 TMXValidatingHandler.14"), errors.toString());
+	}
+
+	@Test
+	void doctypeWithoutSystemId() throws Exception {
+		String content = TestDocuments.tmx(TestDocuments.VALID_TU).replace("<!DOCTYPE tmx SYSTEM \"tmx14.dtd\">",
+				"<!DOCTYPE tmx>");
+		File file = TestDocuments.write(dir, "nosystem.tmx", content);
+		List<ValidationError> errors = new TMXValidator().validate(file, 5);
+		assertEquals(List.of("2:14 #0 TMXValidatingHandler.29"), TestDocuments.describe(errors));
+		TMXValidator validator = new TMXValidator();
+		SAXException e = assertThrows(SAXException.class, () -> validator.validate(file));
+		assertEquals(errors.get(0).getMessage(), e.getMessage());
+	}
+
+	@Test
+	void pathsInZipFileSystems() throws Exception {
+		try (FileSystem zip = FileSystems.newFileSystem(dir.resolve("files.zip"), Map.of("create", "true"))) {
+			Path valid = zip.getPath("valid.tmx");
+			Files.writeString(valid, TestDocuments.tmx(TestDocuments.VALID_TU));
+			Path invalid = zip.getPath("invalid.tmx");
+			Files.writeString(invalid,
+					TestDocuments.tmx(TestDocuments.tu(1, "a", "b").replace("<tu ", "<tu usagecount=\"x\" ")));
+			TMXValidator validator = new TMXValidator();
+			validator.validate(valid);
+			assertTrue(validator.validate(valid, 10).isEmpty());
+			assertEquals(List.of("TMXValidatingHandler.11"), TestDocuments.keys(validator.validate(invalid, 10)));
+			assertThrows(SAXException.class, () -> validator.validate(invalid));
+		}
+	}
+
+	@Test
+	void missingHeaderInCollectMode() throws Exception {
+		String content = TestDocuments.PROLOG + "<tmx version=\"1.4\">\n<body>\n" + TestDocuments.VALID_TU
+				+ "</body>\n</tmx>\n";
+		File file = TestDocuments.write(dir, "noheader.tmx", content);
+		List<ValidationError> errors = new TMXValidator().validate(file, 10);
+		assertEquals(List.of(ValidationError.PARSER_ERROR), TestDocuments.keys(errors));
+		assertThrows(SAXException.class, () -> new TMXValidator().validate(file));
+	}
+}
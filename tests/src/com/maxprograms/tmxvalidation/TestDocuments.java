@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestDocuments {
+
+	public static final String PROLOG = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<!DOCTYPE tmx SYSTEM \"tmx14.dtd\">\n";
+
+	public static final String HEADER = "<header creationtool=\"test\" creationtoolversion=\"1\" segtype=\"sentence\""
+			+ " o-tmf=\"test\" adminlang=\"en\" srclang=\"en\" datatype=\"plaintext\"/>\n";
+
+	public static final String VALID_TU = "<tu tuid=\"1\">\n<tuv xml:lang=\"en\"><seg>Hello <ph x=\"1\"/></seg></tuv>\n"
+			+ "<tuv xml:lang=\"es\"><seg>Hola <ph x=\"1\"/></seg></tuv>\n</tu>\n";
+
+	private TestDocuments() {
+		// helpers shared by the tests
+	}
+
+	public static String tmx(String body) {
+		return PROLOG + "<tmx version=\"1.4\">\n" + HEADER + "<body>\n" + body + "</body>\n</tmx>\n";
+	}
+
+	public static String tu(int id, String en, String es) {
+		return "<tu tuid=\"" + id + "\">\n<tuv xml:lang=\"en\"><seg>" + en + "</seg></tuv>\n<tuv xml:lang=\"es\"><seg>"
+				+ es + "</seg></tuv>\n</tu>\n";
+	}
+
+	public static File write(Path dir, String name, String content) throws IOException {
+		Path path = dir.resolve(name);
+		Files.writeString(path, content, StandardCharsets.UTF_8);
+		return path.toFile();
+	}
+
+	public static File generate(Path dir, String name, long tus, TMXGenerator.ErrorKind kind, double rate)
+			throws IOException {
+		TMXGenerator generator = new TMXGenerator();
+		generator.setTus(tus);
+		generator.setSeed(42);
+		if (kind != null) {
+			generator.setErrorRate(kind, rate);
+		}
+		File file = dir.resolve(name).toFile();
+		generator.generate(file);
+		return file;
+	}
+
+	public static List<String> keys(List<ValidationError> errors) {
+		List<String> result = new ArrayList<>();
+		for (ValidationError error : errors) {
+			result.add(error.getKey());
+		}
+		return result;
+	}
+
+	public static List<String> describe(List<ValidationError> errors) {
+		// position, <tu> number and key, enough to compare two validations
+		List<String> result = new ArrayList<>();
+		for (ValidationError error : errors) {
+			result.add(error.getLine() + ":" + error.getColumn() + " #" + error.getTu() + " " + error.getKey());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.json.JSONObject;
+
+public class TestServer implements AutoCloseable {
+
+	private ValidationServer server;
+	private HttpClient client;
+	private String base;
+
+	public TestServer(int workers, int queueLimit) throws IOException {
+		// any free port, the tests ask for it
+		server = new ValidationServer(0, workers, queueLimit);
+		server.run();
+		client = HttpClient.newHttpClient();
+		base = "http://localhost:" + server.getPort();
+	}
+
+	public ValidationServer getServer() {
+		return server;
+	}
+
+	public HttpClient getClient() {
+		return client;
+	}
+
+	public String getBase() {
+		return base;
+	}
+
+	public JSONObject command(JSONObject json) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/ValidationServer"))
+				.POST(HttpRequest.BodyPublishers.ofString(json.toString())).build();
+		return new JSONObject(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+	}
+
+	public JSONObject upload(String query, byte[] body) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/ValidationServer/upload" + query))
+				.POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode());
+		return new JSONObject(response.body());
+	}
+
+	public JSONObject events(String process) throws Exception {
+		// the last event of the stream is the result
+		HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/ValidationServer/events?process=" + process))
+				.GET().build();
+		String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+		assertTrue(body.contains("event: result\n"), body);
+		String data = body.substring(body.lastIndexOf("data: ") + 6).trim();
+		return new JSONObject(data);
+	}
+
+	public JSONObject awaitResult(String process) throws Exception {
+		JSONObject query = new JSONObject().put("command", "validationResult").put("process", process);
+		for (int i = 0; i < 200; i++) {
+			JSONObject result = command(query);
+			if (result.has("valid")) {
+				return result;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("no result for " + process);
+	}
+
+	public String metrics() throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/metrics")).GET().build();
+		return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+	}
+
+	@Override
+	public void close() {
+		server.stop();
+	}
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2005-2025 Maxprograms.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 1.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/org/documents/epl-v10.html
+ *
+ * Contributors:
+ *     Maxprograms - initial API and implementation
+ *******************************************************************************/
+package com.maxprograms.tmxvalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ValidationServerTest {
+
+	@TempDir
+	Path dir;
+
+	private TestServer server;
+
+	@BeforeEach
+	void start() throws Exception {
+		server = new TestServer(2, 4);
+	}
+
+	@AfterEach
+	void stop() {
+		server.close();
+	}
+
+	@Test
+	void validateCommand() throws Exception {
+		File file = TestDocuments.write(dir, "valid.tmx", TestDocuments.tmx(TestDocuments.VALID_TU));
+		JSONObject started = server
+				.command(new JSONObject().put("command", "validate").put("file", file.getAbsolutePath()));
+		assertEquals(Constants.SUCCESS, started.getString("status"));
+		JSONObject result = server.awaitResult(started.getString("process"));
+		assertTrue(result.getBoolean("valid"));
+		JSONObject status = server
+				.command(new JSONObject().put("command", "status").put("process", started.getString("process")));
+		assertEquals(Constants.ERROR, status.getString("status"));
+	}
+
+	@Test
+	void cacheHitsAreNotThroughput() throws Exception {
+		server.getServer().setCache(new ResultCache(dir.resolve("cache").toFile()));
+		File file = TestDocuments.write(dir, "valid.tmx", TestDocuments.tmx(TestDocuments.VALID_TU));
+		JSONObject validate = new JSONObject().put("command", "validate").put("file", file.getAbsolutePath());
+		for (int i = 0; i < 2; i++) {
+			assertTrue(server.awaitResult(server.command(validate).getString("process")).getBoolean("valid"));
+		}
+		String metrics = server.metrics();
+		assertTrue(metrics.contains("\ntmxvalidator_result_cache_hits_total 1\n"), metrics);
+		assertTrue(metrics.contains("\ntmxvalidator_jobs_total{outcome=\"valid\"} 2\n"), metrics);
+		assertTrue(metrics.contains("\ntmxvalidator_bytes_total " + file.length() + "\n"), metrics);
+	}
+
+	@Test
+	void bytesAreTheOnesRead() throws Exception {
+		// the error in the first <tu> stops the validation long before the end of the file
+		StringBuilder body = new StringBuilder(TestDocuments.tu(0, "broken & text", "texto"));
+		for (int i = 1; i <= 5000; i++) {
+			body.append(TestDocuments.tu(i, "Hello", "Hola"));
+		}
+		File file = TestDocuments.write(dir, "invalid.tmx", TestDocuments.tmx(body.toString()));
+		JSONObject validate = new JSONObject().put("command", "validate").put("file", file.getAbsolutePath());
+		assertFalse(server.awaitResult(server.command(validate).getString("process")).getBoolean("valid"));
+		String metrics = server.metrics();
+		Matcher matcher = Pattern.compile("\ntmxvalidator_bytes_total (\\d+)\n").matcher(metrics);
+		assertTrue(matcher.find(), metrics);
+		long bytes = Long.parseLong(matcher.group(1));
+		assertTrue(bytes > 0 && bytes < file.length(), metrics);
+	}
+
+	@Test
+	void uploadReturnsTheResult() throws Exception {
+		byte[] body = TestDocuments.tmx(TestDocuments.VALID_TU).getBytes(StandardCharsets.UTF_8);
+		JSONObject result = server.upload("?name=sent.tmx", body);
+		assertTrue(result.getBoolean("valid"));
+		assertTrue(result.has("comment"));
+	}
+
+	@Test
+	void gzipUploadWithErrors() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			gzip.write(TestDocuments.tmx(TestDocuments.tu(1, "<ph x=\"1\"/>", "")).getBytes(StandardCharsets.UTF_8));
+		}
+		JSONObject result = server.upload("?gzip=true", bytes.toByteArray());
+		assertFalse(result.getBoolean("valid"));
+		assertTrue(result.has("reason"));
+	}
+
+	@Test
+	void uploadsHaveLimitedSlots() throws Exception {
+		// two workers leave one slot for uploads, the first one holds it until its body ends
+		byte[] content = TestDocuments.tmx(TestDocuments.VALID_TU).getBytes(StandardCharsets.UTF_8);
+		try (Socket slow = new Socket("localhost", server.getServer().getPort())) {
+			OutputStream out = slow.getOutputStream();
+			String head = "POST /ValidationServer/upload HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n"
+					+ "Content-Length: " + content.length + "\r\n\r\n";
+			out.write(head.getBytes(StandardCharsets.US_ASCII));
+			out.write(content, 0, 100);
+			out.flush();
+			HttpRequest second = HttpRequest.newBuilder(URI.create(server.getBase() + "/ValidationServer/upload"))
+					.POST(HttpRequest.BodyPublishers.ofByteArray(content)).build();
+			int code = 0;
+			for (int i = 0; i < 100 && code != 503; i++) {
+				code = server.getClient().send(second, HttpResponse.BodyHandlers.ofString()).statusCode();
+				Thread.sleep(20);
+			}
+			assertEquals(503, code);
+			out.write(content, 100, content.length - 100);
+			out.flush();
+			String response = new String(slow.getInputStream().readNBytes(1 << 12), StandardCharsets.UTF_8);
+			assertTrue(response.startsWith("HTTP/1.1 200"), response);
+			assertTrue(response.contains("\"valid\":true"), response);
+			assertEquals(200, server.getClient().send(second, HttpResponse.BodyHandlers.ofString()).statusCode());
+		}
+	}
+
+	@Test
+	void crashedJobsFinish() throws Exception {
+		server.getServer().getValidators().release(new TMXValidator() {
+			@Override
+			public void validate(File file) {
+				throw new IllegalStateException("broken validator");
+			}
+		});
+		File file = TestDocuments.write(dir, "valid.tmx", TestDocuments.tmx(TestDocuments.VALID_TU));
+		String process = server.command(new JSONObject().put("command", "validate").put("file", file.getAbsolutePath()))
+				.getString("process");
+		JSONObject result = server.events(process);
+		assertEquals(Constants.ERROR, result.getString("status"));
+		assertFalse(result.getBoolean("valid"));
+		assertEquals("broken validator", result.getString("reason"));
+		assertEquals(0, server.getServer().getValidators().getIdle());
+		String metrics = server.metrics();
+		assertTrue(metrics.contains("\ntmxvalidator_jobs_total{outcome=\"error\"} 1\n"), metrics);
+		assertFalse(metrics.contains("outcome=\"valid\""), metrics);
+	}
+
+	@Test
+	void unknownProcess() throws Exception {
+		HttpRequest request = HttpRequest
+				.newBuilder(URI.create(server.getBase() + "/ValidationServer/events?process=missing")).GET().build();
+		assertEquals(404, server.getClient().send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+	}
+}
@@ -12,7 +12,7 @@
 
 import { app, ipcMain, BrowserWindow, dialog } from "electron";
 import { ChildProcessWithoutNullStreams, execFileSync, spawn } from "child_process";
-import { ClientRequest, request } from "http";
+import { ClientRequest, IncomingMessage, get, request } from "http";
 import { IpcMainEvent } from "electron/main";
 
 class TMXValidator {
@@ -21,7 +21,6 @@ class TMXValidator {
     javapath: string = app.getAppPath() + '/bin/java';
     static ls: ChildProcessWithoutNullStreams;
     static killed: boolean = false;
-    static currentStatus: any = {};
 
     constructor() {
         if (!app.requestSingleInstanceLock()) {
@@ -107,32 +106,91 @@ class TMXValidator {
         event.sender.send('validation-started');
         TMXValidator.sendRequest(arg,
             function success(data: any) {
-                TMXValidator.currentStatus = data;
-                let intervalObject = setInterval(function () {
-                    if (TMXValidator.currentStatus.status === 'Success') {
-                        // ignore status from validation request
-                    } else if (TMXValidator.currentStatus.status === 'Completed') {
-                        clearInterval(intervalObject);
-                        event.sender.send('validation-completed');
-                        TMXValidator.getValidationStatus(data.process, event);
-                        return;
-                    } else if (TMXValidator.currentStatus.status === 'Running') {
-                        // keep waiting
-                    } else {
-                        clearInterval(intervalObject);
-                        event.sender.send('validation-completed');
-                        dialog.showErrorBox('Error', TMXValidator.currentStatus.reason);
-                        return;
-                    }
-                    TMXValidator.getStatus(data.process);
-                }, 500);
+                if (data.status !== 'Success') {
+                    event.sender.send('validation-completed');
+                    dialog.showErrorBox('Error', data.reason);
+                    return;
+                }
+                TMXValidator.listenEvents(data.process, event);
             },
             function error(reason: string) {
+                event.sender.send('validation-completed');
                 dialog.showErrorBox('Error', reason);
             }
         );
     }
 
+    static listenEvents(processId: string, event: IpcMainEvent): void {
+        // the server pushes progress and the final result, no polling needed
+        let req: ClientRequest = get({
+            hostname: '127.0.0.1',
+            port: 8010,
+            path: '/ValidationServer/events?process=' + encodeURIComponent(processId)
+        });
+        // set once the result or an error was shown, the stream may still end or fail afterwards
+        let finished: boolean = false;
+        let fail = (message: string): void => {
+            if (!finished) {
+                finished = true;
+                event.sender.send('validation-completed');
+                dialog.showErrorBox('Error', message);
+            }
+        };
+        req.on('response', (res: IncomingMessage) => {
+            res.setEncoding('utf-8');
+            if (res.statusCode != 200) {
+                fail('listenEvents() error: ' + res.statusMessage);
+                res.resume();
+                return;
+            }
+            let buffer: string = '';
+            res.on('data', (chunk: string) => {
+                buffer += chunk;
+                let index: number = buffer.indexOf('\n\n');
+                while (index !== -1) {
+                    if (TMXValidator.handleEvent(buffer.substring(0, index), event)) {
+                        finished = true;
+                    }
+                    buffer = buffer.substring(index + 2);
+                    index = buffer.indexOf('\n\n');
+                }
+            });
+            res.on('end', () => {
+                fail('Validation server closed the connection before sending the result');
+            });
+            res.on('error', (err: Error) => {
+                fail(err.message);
+            });
+        });
+        req.on('error', (err: Error) => {
+            fail(err.message);
+        });
+    }
+
+    static handleEvent(block: string, event: IpcMainEvent): boolean {
+        // true when the block carries the result
+        let name: string = '';
+        let data: string = '';
+        for (let line of block.split('\n')) {
+            if (line.startsWith('event: ')) {
+                name = line.substring(7);
+            } else if (line.startsWith('data: ')) {
+                data = line.substring(6);
+            }
+        }
+        if (name === 'progress') {
+            let json: any = JSON.parse(data);
+            if (json.progress) {
+                event.sender.send('validation-progress', json.progress);
+            }
+        } else if (name === 'result') {
+            event.sender.send('validation-completed');
+            TMXValidator.showResult(JSON.parse(data));
+            return true;
+        }
+        return false;
+    }
+
     showAbout(): void {
         let about = new BrowserWindow({
             parent: TMXValidator.mainWindow,
@@ -188,14 +246,22 @@ class TMXValidator {
         req.on('response',
             function (res: any) {
                 res.setEncoding('utf-8');
-                if (res.statusCode != 200) {
-                    error('sendRequest() error: ' + res.statusMessage);
-                }
                 let rawData: string = '';
                 res.on('data', (chunk: string) => {
                     rawData += chunk;
                 });
                 res.on('end', () => {
+                    if (res.statusCode != 200) {
+                        // the server explains busy and failed requests in the body
+                        let reason: string = res.statusMessage;
+                        try {
+                            reason = JSON.parse(rawData).reason || reason;
+                        } catch (e) {
+                            // not JSON, use the status message
+                        }
+                        error('sendRequest() error: ' + reason);
+                        return;
+                    }
                     try {
                         success(JSON.parse(rawData));
                     } catch (e) {
@@ -208,30 +274,12 @@ class TMXValidator {
         req.end();
     }
 
-    static getStatus(processId: string): void {
-        TMXValidator.sendRequest({ command: 'status', process: processId },
-            (data: any) => {
-                TMXValidator.currentStatus = data;
-            },
-            (reason: string) => {
-                dialog.showErrorBox('Error', reason);
-            }
-        );
-    }
-
-    static getValidationStatus(processId: string, event: any): void {
-        TMXValidator.sendRequest({ command: 'validationResult', process: processId },
-            (data: any) => {
-                if (data.valid) {
-                    dialog.showMessageBox({ type: 'info', message: data.comment });
-                } else {
-                    dialog.showMessageBox({ type: 'error', message: data.reason });
-                }
-            },
-            (reason: string) => {
-                dialog.showErrorBox('Error', reason);
-            }
-        );
+    static showResult(data: any): void {
+        if (data.valid) {
+            dialog.showMessageBox({ type: 'info', message: data.comment });
+        } else {
+            dialog.showMessageBox({ type: 'error', message: data.reason });
+        }
     }
 
 }
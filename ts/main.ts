@@ -33,9 +33,14 @@ class Main {
             document.getElementById('working').style.display = 'block';
         });
 
+        this.electron.ipcRenderer.on('validation-progress', (event: Electron.IpcRendererEvent, arg: any) => {
+            this.showProgress(arg);
+        });
+
         this.electron.ipcRenderer.on('validation-completed', () => {
             document.documentElement.style.cursor = 'default';
             document.getElementById('working').style.display = 'none';
+            document.getElementById('progress').innerText = '';
         });
     }
 
@@ -52,6 +57,18 @@ class Main {
         this.electron.ipcRenderer.send('validate', { command: 'validate', file: tmxfile });
     }
 
+    showProgress(progress: any) {
+        let text: string = progress.tus + ' <tu>';
+        if (progress.totalBytes > 0) {
+            text = Math.floor(progress.bytesRead * 100 / progress.totalBytes) + '% - ' + text;
+        }
+        text = text + ' - ' + (progress.throughput / (1024 * 1024)).toFixed(1) + ' MB/s';
+        if (progress.eta >= 0) {
+            text = text + ' - ETA ' + progress.eta + ' s';
+        }
+        document.getElementById('progress').innerText = text;
+    }
+
     showAbout() {
         this.electron.ipcRenderer.send('show-about');
     }